@@ -0,0 +1,16 @@
+package study.datajpa.archive;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ArchiveResult {
+
+    private final long archivedCount; // 이번 실행에서 옮긴 회원 수
+    private final int batchCount;
+    private final boolean resumed;    // 이전에 멈춘 작업을 이어서 했는지
+    private final boolean completed;  // false 면 체크포인트가 남아 있고 다음 실행 때 이어서 한다.
+}
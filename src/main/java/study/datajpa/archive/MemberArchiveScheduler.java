@@ -0,0 +1,32 @@
+package study.datajpa.archive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/** 백그라운드 아카이브 : datajpa.archive.enabled=true 일 때만 동작
+ * datajpa.archive.retention : 삭제 후 이 기간이 지난 회원을 옮긴다. (기본 30일)
+ * datajpa.archive.interval  : 실행 간격 (기본 1시간)
+ * */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "datajpa.archive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class MemberArchiveScheduler {
+
+    private final MemberArchiver memberArchiver;
+
+    @Value("${datajpa.archive.retention:P30D}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${datajpa.archive.interval:PT1H}", initialDelayString = "${datajpa.archive.interval:PT1H}")
+    public void archive() {
+        memberArchiver.archiveDeletedBefore(LocalDateTime.now().minus(retention));
+    }
+}
@@ -0,0 +1,131 @@
+package study.datajpa.archive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** soft delete 된 회원을 member -> member_archive 로 옮긴다.
+ *
+ * 대상은 "삭제된 지 오래된 회원" 뿐이다. member 에는 마지막 활동 시각 같은 컬럼이 없어서
+ * 살아있는 회원을 비활성 기준으로 옮기지는 않는다. (비활성 회원은 먼저 삭제(soft delete)되어야 대상이 된다)
+ * 배치 조회(deleted_at < ? and member_id > ?)는 member(deleted_at, member_id) 인덱스를 탄다.
+ *
+ * - 배치 단위 트랜잭션 : batchSize 명씩 (archive insert + member delete + 체크포인트 갱신) 을 한 트랜잭션으로.
+ * - 스로틀 : 배치 사이에 pause 만큼 쉬어서 운영 트래픽과 락/IO 경쟁을 줄인다.
+ * - 재시작 : 진행 위치를 archive_checkpoint 에 남긴다. maxBatches 에 걸리거나 중간에 죽으면
+ *   다음 실행이 같은 cutoff 로 이어서 한다. 끝까지 돌면 체크포인트를 지운다.
+ * - 동시 실행 : 여러 노드가 동시에 시작하면 체크포인트 insert 는 하나만 성공하고, 나머지는 그 체크포인트를 다시 읽어 합류한다.
+ *   배치는 체크포인트 행 잠금(for update)으로 차례로 돈다.
+ * 이미 soft delete 된 행만 다루므로 캐시/팀 통계는 건드릴 필요가 없다. (삭제 시점에 이미 반영됨)
+ * */
+@Component
+public class MemberArchiver {
+
+    static final String JOB = "member";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultBatchSize;
+    private final Duration pause;
+
+    public MemberArchiver(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${datajpa.archive.batch-size:500}") int defaultBatchSize,
+                          @Value("${datajpa.archive.pause:100ms}") Duration pause) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultBatchSize = defaultBatchSize;
+        this.pause = pause;
+    }
+
+    public ArchiveResult archiveDeletedBefore(LocalDateTime cutoff) {
+        return archiveDeletedBefore(cutoff, defaultBatchSize, Integer.MAX_VALUE);
+    }
+
+    public ArchiveResult archiveDeletedBefore(LocalDateTime cutoff, int batchSize, int maxBatches) {
+        Timestamp runCutoff = Timestamp.valueOf(cutoff);
+        boolean resumed = false;
+        List<Timestamp> savedCutoff = savedCutoff();
+        if (savedCutoff.isEmpty()) {
+            try {
+                jdbcTemplate.update("insert into archive_checkpoint (job, cutoff, last_member_id) values (?, ?, 0)", JOB, runCutoff);
+            } catch (DuplicateKeyException e) {
+                savedCutoff = savedCutoff(); // 다른 노드가 먼저 시작했다 -> 그 작업에 합류
+            }
+        }
+        if (!savedCutoff.isEmpty()) {
+            resumed = true;
+            runCutoff = savedCutoff.get(0); // 멈춘(또는 진행 중인) 작업의 기준 시각으로 이어서
+        }
+        Timestamp jobCutoff = runCutoff;
+
+        long archived = 0;
+        int batches = 0;
+        while (batches < maxBatches) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(jobCutoff, batchSize));
+            if (moved == null || moved == 0) {
+                jdbcTemplate.update("delete from archive_checkpoint where job = ?", JOB);
+                return new ArchiveResult(archived, batches, resumed, true);
+            }
+            archived += moved;
+            batches++;
+            if (!sleep(pause)) {
+                break;
+            }
+        }
+        return new ArchiveResult(archived, batches, resumed, false);
+    }
+
+    /** 체크포인트 다음 id 부터 batchSize 명 옮기고 체크포인트를 갱신한다. (한 트랜잭션) */
+    private int archiveBatch(Timestamp cutoff, int batchSize) {
+        List<Long> checkpoint = jdbcTemplate.queryForList(
+                "select last_member_id from archive_checkpoint where job = ? for update", Long.class, JOB);
+        if (checkpoint.isEmpty()) {
+            return 0; // 같이 돌던 다른 노드가 끝내고 체크포인트를 지웠다.
+        }
+        Long lastMemberId = checkpoint.get(0);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select member_id from member where deleted_at < ? and member_id > ? order by member_id limit ?",
+                Long.class, cutoff, lastMemberId, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] params = ids.toArray();
+
+        // 재시작 시 이미 옮겨진 행이 있어도 중복 insert 하지 않는다.
+        jdbcTemplate.update("insert into member_archive (member_id, username, age, team_id, deleted_at, archived_at)" +
+                " select member_id, username, age, coalesce(team_id, deleted_team_id), deleted_at, current_timestamp from member" +
+                " where member_id in (" + in + ")" +
+                " and member_id not in (select member_id from member_archive)", params);
+        jdbcTemplate.update("delete from member where member_id in (" + in + ")", params);
+        jdbcTemplate.update("update archive_checkpoint set last_member_id = ? where job = ?", ids.get(ids.size() - 1), JOB);
+        return ids.size();
+    }
+
+    private List<Timestamp> savedCutoff() {
+        return jdbcTemplate.queryForList("select cutoff from archive_checkpoint where job = ?", Timestamp.class, JOB);
+    }
+
+    private static boolean sleep(Duration pause) {
+        if (pause.isZero() || pause.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // 체크포인트가 남아 있으므로 다음 실행 때 이어서 한다.
+            return false;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package study.datajpa.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    /** 다른 InvalidationBus 구현을 빈으로 등록하지 않으면, 혼자 도는 루프백 버스를 쓴다. (단일 노드) */
+    @Bean
+    @ConditionalOnMissingBean(InvalidationBus.class)
+    public InvalidationBus invalidationBus() {
+        return new LoopbackInvalidationBus(new LoopbackInvalidationBus.Hub());
+    }
+}
@@ -0,0 +1,106 @@
+package study.datajpa.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** 캐시 무효화 창구
+ *
+ * 1. 로컬 캐시(InvalidationHandler 빈)는 바로 지우고, 트랜잭션이 끝난 뒤에 한번 더 지운다.
+ *    (flush ~ 커밋 사이에 다른 트랜잭션이 이전 값을 다시 캐시에 넣을 수 있기 때문)
+ * 2. 다른 노드에는 커밋된 뒤에만 InvalidationBus 로 보낸다. 롤백되면 보내지 않는다.
+ *    트랜잭션 하나의 무효화는 메시지 하나로 묶고, 같은 key 는 한번만 보낸다.
+ *    한 영역의 key 가 maxKeysPerRegion 개를 넘으면 영역 전체 무효화 하나로 바꾼다. (벌크 수정 시 메시지 폭주 방지)
+ * */
+@Component
+public class CacheInvalidator {
+
+    private final InvalidationBus bus;
+    private final List<InvalidationHandler> handlers;
+    private final int maxKeysPerRegion;
+
+    public CacheInvalidator(InvalidationBus bus,
+                            List<InvalidationHandler> handlers,
+                            @Value("${datajpa.cache.invalidation.max-keys-per-region:1000}") int maxKeysPerRegion) {
+        this.bus = bus;
+        this.handlers = handlers;
+        this.maxKeysPerRegion = maxKeysPerRegion;
+        bus.subscribe(message -> handlers.forEach(message::applyTo)); // 다른 노드에서 온 무효화
+    }
+
+    public void evict(String region, Object key) {
+        if (key == null) {
+            return;
+        }
+        handlers.forEach(handler -> handler.evict(region, key));
+        Batch batch = currentBatch();
+        if (batch != null) {
+            batch.addKey(region, key);
+        } else {
+            bus.publish(InvalidationMessage.ofKey(region, key));
+        }
+    }
+
+    public void evictRegion(String region) {
+        handlers.forEach(handler -> handler.evictRegion(region));
+        Batch batch = currentBatch();
+        if (batch != null) {
+            batch.addRegion(region);
+        } else {
+            bus.publish(InvalidationMessage.ofRegion(region));
+        }
+    }
+
+    /** 트랜잭션마다 하나씩 만들어서 트랜잭션 리소스로 묶어둔다. 트랜잭션 밖이면 null */
+    private Batch currentBatch() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+        if (batch == null) {
+            batch = new Batch();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(batch);
+        }
+        return batch;
+    }
+
+    private class Batch implements TransactionSynchronization {
+
+        private final Map<String, Set<Object>> keys = new LinkedHashMap<>();
+        private final Set<String> regions = new LinkedHashSet<>();
+
+        void addKey(String region, Object key) {
+            if (regions.contains(region)) {
+                return;
+            }
+            Set<Object> regionKeys = keys.computeIfAbsent(region, r -> new LinkedHashSet<>());
+            regionKeys.add(key);
+            if (regionKeys.size() > maxKeysPerRegion) {
+                addRegion(region);
+            }
+        }
+
+        void addRegion(String region) {
+            regions.add(region);
+            keys.remove(region);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidator.this);
+            InvalidationMessage message = new InvalidationMessage(keys, regions);
+            handlers.forEach(message::applyTo);
+            if (status == STATUS_COMMITTED) {
+                bus.publish(message);
+            }
+        }
+    }
+}
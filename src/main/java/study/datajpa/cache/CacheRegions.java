@@ -0,0 +1,12 @@
+package study.datajpa.cache;
+
+/** 캐시 무효화 메시지에 쓰는 영역(region) 이름 */
+public final class CacheRegions {
+
+    public static final String MEMBER = "Member";                   // key : member id
+    public static final String MEMBER_USERNAME = "Member.username"; // key : username
+    public static final String TEAM = "Team";                       // key : team id
+
+    private CacheRegions() {
+    }
+}
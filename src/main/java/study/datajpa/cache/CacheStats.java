@@ -0,0 +1,25 @@
+package study.datajpa.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/** 캐시 적중률 스냅샷 */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class CacheStats {
+
+    private final long hits;         // 캐시에서 회원 id 를 찾았고, 엔티티도 1차 캐시에 있어서 SQL 없음
+    private final long loadingHits;  // 캐시에서 회원 id 를 찾았지만 엔티티를 in 쿼리로 읽음 (적중률에 안 넣는다)
+    private final long negativeHits; // "그런 회원 없음"이 캐시되어 있어서 DB 안 감
+    private final long misses;       // DB 조회
+    private final long evictions;    // 크기 제한으로 밀려난 개수
+    private final long size;
+
+    /** SQL 을 아예 안 보낸 비율 */
+    public double getHitRate() {
+        long requests = hits + loadingHits + negativeHits + misses;
+        return requests == 0 ? 0 : (double) (hits + negativeHits) / requests;
+    }
+}
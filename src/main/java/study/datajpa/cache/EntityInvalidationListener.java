@@ -0,0 +1,33 @@
+package study.datajpa.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/** Member, Team 엔티티 리스너 : 저장/수정(setUsername 포함)/삭제가 DB에 반영될 때 캐시를 무효화한다.
+ * 스프링부트가 하이버네이트에 SpringBeanContainer 를 설정해주기 때문에 엔티티 리스너도 스프링 빈으로 주입받을 수 있다.
+ * */
+@Component
+@RequiredArgsConstructor
+public class EntityInvalidationListener {
+
+    private final CacheInvalidator cacheInvalidator;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Object entity) {
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            cacheInvalidator.evict(CacheRegions.MEMBER, member.getId());                // 이전 username 으로 캐시된 항목 (이름 변경)
+            cacheInvalidator.evict(CacheRegions.MEMBER_USERNAME, member.getUsername()); // 새 username 으로 캐시된 "없음" 항목
+        } else if (entity instanceof Team) {
+            cacheInvalidator.evict(CacheRegions.TEAM, ((Team) entity).getId());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package study.datajpa.cache;
+
+import java.util.function.Consumer;
+
+/** 여러 애플리케이션 인스턴스(노드)에 캐시 무효화 메시지를 뿌리는 통로.
+ * 기본은 LoopbackInvalidationBus(같은 JVM 안). Redis pub/sub, 메시지 큐 등으로 구현해서 빈으로 등록하면 교체된다.
+ * 구현체는 보낸 노드 자신에게는 메시지를 다시 전달하지 않는다.
+ * */
+public interface InvalidationBus {
+
+    void publish(InvalidationMessage message);
+
+    void subscribe(Consumer<InvalidationMessage> listener);
+}
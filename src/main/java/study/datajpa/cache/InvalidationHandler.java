@@ -0,0 +1,9 @@
+package study.datajpa.cache;
+
+/** 캐시 무효화를 받아서 처리하는 로컬 캐시. 스프링 빈으로 등록하면 CacheInvalidator 가 찾아서 호출한다. */
+public interface InvalidationHandler {
+
+    void evict(String region, Object key);
+
+    void evictRegion(String region);
+}
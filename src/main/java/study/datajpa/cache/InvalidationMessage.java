@@ -0,0 +1,41 @@
+package study.datajpa.cache;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/** 노드 간에 주고받는 캐시 무효화 메시지. 트랜잭션 1개 분량을 묶어서 보낸다. */
+@Getter
+@ToString
+public class InvalidationMessage implements Serializable {
+
+    private final Map<String, Set<Object>> keys;  // 영역별로 지울 key
+    private final Set<String> regions;            // 통째로 지울 영역
+
+    public InvalidationMessage(Map<String, Set<Object>> keys, Set<String> regions) {
+        Map<String, Set<Object>> copy = new LinkedHashMap<>();
+        keys.forEach((region, regionKeys) -> copy.put(region, Collections.unmodifiableSet(new LinkedHashSet<>(regionKeys))));
+        this.keys = Collections.unmodifiableMap(copy);
+        this.regions = Collections.unmodifiableSet(new LinkedHashSet<>(regions));
+    }
+
+    public static InvalidationMessage ofKey(String region, Object key) {
+        return new InvalidationMessage(Collections.singletonMap(region, Collections.singleton(key)), Collections.emptySet());
+    }
+
+    public static InvalidationMessage ofRegion(String region) {
+        return new InvalidationMessage(Collections.emptyMap(), Collections.singleton(region));
+    }
+
+    /** 받은 쪽에서 로컬 캐시에 적용한다. */
+    public void applyTo(InvalidationHandler handler) {
+        regions.forEach(handler::evictRegion);
+        keys.forEach((region, regionKeys) -> regionKeys.forEach(key -> handler.evict(region, key)));
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** 같은 JVM 안에서 동작하는 InvalidationBus.
+ * 같은 Hub 에 연결된 버스끼리 메시지를 주고받는다. 한 프로세스 안에서 여러 노드를 흉내내서 테스트할 때 쓴다.
+ * Hub 에 혼자 연결되어 있으면(기본 설정) 아무에게도 보내지 않는다.
+ * */
+public class LoopbackInvalidationBus implements InvalidationBus {
+
+    private final Hub hub;
+    private final List<Consumer<InvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+
+    public LoopbackInvalidationBus(Hub hub) {
+        this.hub = hub;
+        hub.nodes.add(this);
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        for (LoopbackInvalidationBus node : hub.nodes) {
+            if (node != this) {
+                node.listeners.forEach(listener -> listener.accept(message));
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+
+    public static class Hub {
+        private final List<LoopbackInvalidationBus> nodes = new CopyOnWriteArrayList<>();
+    }
+}
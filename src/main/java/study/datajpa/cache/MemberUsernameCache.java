@@ -0,0 +1,201 @@
+package study.datajpa.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/** username -> 회원 id 목록 캐시
+ *
+ * 엔티티가 아니라 id 만 캐시한다. 엔티티는 영속성 컨텍스트 밖으로 들고 다니면 안 되기 때문에,
+ * 캐시 적중 시에도 id 로 엔티티를 가져온다. 1차 캐시에 없는 id 는 in 쿼리 1번으로 읽는다. (MemberRepositoryImpl)
+ * -> id 적중이어도 SQL 이 나갈 수 있으므로, 적중 통계는 호출한 쪽이 recordHit() 으로 SQL 여부를 같이 알린다.
+ * 없는 username 도 빈 목록으로 캐시한다. (negative caching, 짧은 TTL)
+ *
+ * 무효화 : EntityInvalidationListener -> CacheInvalidator 가 Member 저장/수정/삭제 시 호출한다. (다른 노드 포함)
+ * */
+@Component
+public class MemberUsernameCache implements InvalidationHandler {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> usernameById = new ConcurrentHashMap<>(); // id 로 무효화하기 위한 역색인
+
+    /** 무효화 할 때마다 증가. DB 조회 도중에 무효화가 끼어들면 그 조회 결과는 캐시에 넣지 않는다. */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loadingHits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public MemberUsernameCache(@Value("${datajpa.cache.username.max-size:10000}") int maxSize,
+                               @Value("${datajpa.cache.username.ttl:10m}") Duration ttl,
+                               @Value("${datajpa.cache.username.negative-ttl:5s}") Duration negativeTtl) {
+        this(maxSize, ttl, negativeTtl, System::nanoTime);
+    }
+
+    MemberUsernameCache(int maxSize, Duration ttl, Duration negativeTtl, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.clock = clock;
+    }
+
+    /** 캐시된 id 목록. 빈 목록이면 "없는 회원"으로 캐시된 것. null 이면 캐시에 없음 -> DB 조회
+     * 빈 목록이 아니면 호출한 쪽이 엔티티를 가져온 뒤 recordHit() 를 부른다. (낡은 항목이면 부르지 않고 DB 조회 -> miss) */
+    public List<Long> get(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt - clock.getAsLong() <= 0) {
+            if (entries.remove(username, entry)) {
+                unindex(username, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        if (entry.ids.isEmpty()) {
+            negativeHits.increment();
+        }
+        return entry.ids;
+    }
+
+    /** id 적중 결과. loaded : 1차 캐시에 없는 엔티티를 읽느라 SQL 이 나갔는지 */
+    public void recordHit(boolean loaded) {
+        if (loaded) {
+            loadingHits.increment();
+        } else {
+            hits.increment();
+        }
+    }
+
+    /** id 적중이었지만 엔티티가 낡아서(삭제, 이름 변경) DB 조회로 넘어감 */
+    public void recordStaleHit() {
+        misses.increment();
+    }
+
+    /** DB 조회 직전의 세대 번호. put() 에 그대로 넘긴다. */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String username, List<Long> ids, long observedGeneration) {
+        if (generation.get() != observedGeneration) {
+            return;
+        }
+        makeRoom();
+        long ttl = ids.isEmpty() ? negativeTtlNanos : ttlNanos;
+        Entry entry = new Entry(List.copyOf(ids), clock.getAsLong() + ttl);
+        entries.put(username, entry);
+        for (Long id : entry.ids) {
+            usernameById.put(id, username);
+        }
+        // 위 확인과 put 사이에 무효화가 끼어든 경우 되돌린다.
+        if (generation.get() != observedGeneration && entries.remove(username, entry)) {
+            unindex(username, entry);
+        }
+    }
+
+    @Override
+    public void evict(String region, Object key) {
+        if (CacheRegions.MEMBER.equals(region)) {
+            evictId((Long) key);
+        } else if (CacheRegions.MEMBER_USERNAME.equals(region)) {
+            evictUsername((String) key);
+        }
+    }
+
+    /** Member 영역 전체 무효화(벌크 수정)는 무시한다. username -> id 는 벌크 수정으로 바뀌지 않고,
+     * 삭제된 id 는 캐시 적중 시 엔티티를 가져온 결과로 걸러진다. */
+    @Override
+    public void evictRegion(String region) {
+        if (CacheRegions.MEMBER_USERNAME.equals(region)) {
+            clear();
+        }
+    }
+
+    public void evictUsername(String username) {
+        if (username == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        Entry entry = entries.remove(username);
+        if (entry != null) {
+            unindex(username, entry);
+        }
+    }
+
+    public void evictId(Long id) {
+        if (id == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        String username = usernameById.remove(id);
+        if (username != null) {
+            evictUsername(username);
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+        usernameById.clear();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), loadingHits.sum(), negativeHits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    /** 최대 크기를 넘으면 만료된 것부터 지우고, 그래도 넘으면 90% 까지 임의로 지운다. */
+    private void makeRoom() {
+        if (entries.size() < maxSize) {
+            return;
+        }
+        long now = clock.getAsLong();
+        entries.forEach((username, entry) -> {
+            if (entry.expiresAt - now <= 0 && entries.remove(username, entry)) {
+                unindex(username, entry);
+            }
+        });
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() >= maxSize * 9 / 10 && it.hasNext()) {
+            Map.Entry<String, Entry> victim = it.next();
+            it.remove();
+            unindex(victim.getKey(), victim.getValue());
+            evictions.increment();
+        }
+    }
+
+    private void unindex(String username, Entry entry) {
+        for (Long id : entry.ids) {
+            usernameById.remove(id, username);
+        }
+    }
+
+    private static class Entry {
+        private final List<Long> ids;
+        private final long expiresAt;
+
+        Entry(List<Long> ids, long expiresAt) {
+            this.ids = ids;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
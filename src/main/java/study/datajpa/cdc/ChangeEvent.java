@@ -0,0 +1,28 @@
+package study.datajpa.cdc;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/** outbox 에서 읽어서 싱크로 내보내는 변경 이벤트. eventId 순서 = 커밋 순서 (같은 엔티티 기준) */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class ChangeEvent {
+
+    public static final String INSERT = "INSERT";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+    public static final String BULK_UPDATE = "BULK_UPDATE";
+
+    private final long eventId;
+    private final String aggregateType;
+    private final Long aggregateId;
+    private final String eventType;
+    private final String payload;
+    private final LocalDateTime createdAt;
+}
@@ -0,0 +1,40 @@
+package study.datajpa.cdc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Paths;
+
+/** 싱크는 기본값이 없다. relay 를 켜려면 싱크를 명시해야 한다. (datajpa.cdc.sink=file 또는 ChangeEventSink 빈) */
+@Configuration
+public class ChangeEventConfig {
+
+    /** datajpa.cdc.sink=file : datajpa.cdc.file 경로에 JSON Lines 로 쌓는다. */
+    @Bean
+    @ConditionalOnMissingBean(ChangeEventSink.class)
+    @ConditionalOnProperty(name = "datajpa.cdc.sink", havingValue = "file")
+    public ChangeEventSink fileChangeEventSink(@Value("${datajpa.cdc.file:cdc/changes.jsonl}") String file,
+                                               ObjectMapper objectMapper) {
+        return new FileChangeEventSink(Paths.get(file), objectMapper);
+    }
+
+    /** datajpa.cdc.relay.enabled=true 일 때만 만든다. 싱크가 없으면 조용히 버리지 않고 시작할 때 실패한다. */
+    @Bean
+    @ConditionalOnProperty(name = "datajpa.cdc.relay.enabled", havingValue = "true")
+    public OutboxRelay outboxRelay(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   ObjectProvider<ChangeEventSink> sink,
+                                   @Value("${datajpa.cdc.relay.batch-size:500}") int batchSize) {
+        return new OutboxRelay(jdbcTemplate, transactionTemplate, sink.getIfAvailable(() -> {
+            throw new IllegalStateException("datajpa.cdc.relay.enabled=true requires a ChangeEventSink" +
+                    " (set datajpa.cdc.sink=file or register a ChangeEventSink bean)");
+        }), batchSize);
+    }
+}
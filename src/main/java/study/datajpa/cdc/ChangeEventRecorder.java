@@ -0,0 +1,227 @@
+package study.datajpa.cdc;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.bytecode.enhance.spi.LazyPropertyInitializer;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.type.EntityType;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.support.HibernateEventListeners;
+import study.datajpa.support.SessionBuffers;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Member/Team 변경을 outbox_event 에 기록한다. (transactional outbox)
+ *
+ * 하이버네이트 이벤트 리스너로 insert/update/delete 를 받아 세션(트랜잭션) 단위로 모아두고,
+ * 커밋 직전에 같은 커넥션으로 outbox_event 에 insert 한다. -> 데이터 변경과 이벤트가 같이 커밋되거나 같이 롤백된다.
+ * 벌크 수정/삭제는 엔티티 이벤트가 없으므로 recordBulkMembers() 로 insert ... select 해서 남긴다. (MemberBulkOperations)
+ * 내보내기는 OutboxRelay 가 따로 한다.
+ *
+ * 리스너는 컨텍스트가 다 뜬 뒤(ContextRefreshedEvent)에 등록한다. (HibernateEventListeners 참고)
+ * datajpa.cdc.enabled=true 일 때만 기록한다. (기본 꺼짐 : 읽어갈 relay 없이 켜면 outbox 가 계속 쌓인다.)
+ * */
+@Component
+public class ChangeEventRecorder implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    static final String INSERT_SQL =
+            "insert into outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at)" +
+            " values (?, ?, ?, ?, current_timestamp)";
+    static final String BULK_MEMBER_INSERT_SQL =
+            "insert into outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at)" +
+            " select 'Member', m.member_id, ?, concat('{\"operation\":\"', ?, '\",\"id\":', m.member_id," +
+            " ',\"username\":', %s, ',\"age\":', %s," +
+            " ',\"teamId\":', coalesce(cast(m.team_id as varchar), 'null'), '}'), current_timestamp" +
+            " from member m where %s order by m.member_id";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final AtomicBoolean registered = new AtomicBoolean();
+    private final SessionBuffers<PendingEvents> pending = new SessionBuffers<>(PendingEvents::new);
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public ChangeEventRecorder(EntityManagerFactory entityManagerFactory,
+                               ObjectMapper objectMapper,
+                               @Value("${datajpa.cdc.enabled:false}") boolean enabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void registerListeners() {
+        if (enabled && registered.compareAndSet(false, true)) { // 자식 컨텍스트의 refresh 이벤트로 두 번 등록되지 않도록
+            HibernateEventListeners.appendPostEventListeners(entityManagerFactory, this);
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), ChangeEvent.INSERT, event.getPersister(), event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), ChangeEvent.UPDATE, event.getPersister(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) { // soft delete(@SQLDelete) 도 여기로 온다. 삭제 직전 값을 남긴다.
+        record(event.getSession(), event.getEntity(), event.getId(), ChangeEvent.DELETE, event.getPersister(), event.getDeletedState());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /** 벌크 연산에서 호출 : member 테이블에서 condition 에 맞는 행마다 이벤트 1건을 insert ... select 한 문장으로 바로 쓴다.
+     * 행을 JVM 으로 읽지 않으므로 대상이 많아도 메모리를 쓰지 않는다. 꺼져 있으면 아무것도 하지 않는다.
+     * payload = {"operation":.., "id":.., "username":.., "age":<ageExpression>, "teamId":..} (엔티티 이벤트와 같은 이름)
+     * condition, ageExpression 은 member 테이블 별칭 m 기준 SQL 이다. 벌크 update 직전에 부른다.
+     * */
+    public void recordBulkMembers(String eventType, String operation, String ageExpression, String condition,
+                                  Object... parameters) {
+        if (!enabled) {
+            return;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        events(session).write(session); // 앞서 모아둔 이벤트를 먼저 써서 event_id 순서 = 발생 순서를 지킨다.
+        String sql = String.format(BULK_MEMBER_INSERT_SQL, jsonString("m.username"), ageExpression, condition);
+        session.doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                insert.setString(1, eventType);
+                insert.setString(2, operation);
+                for (int i = 0; i < parameters.length; i++) {
+                    insert.setObject(i + 3, parameters[i]);
+                }
+                insert.executeUpdate();
+            }
+        });
+    }
+
+    /** 문자열 컬럼 -> JSON 문자열 리터럴을 만드는 SQL (null 이면 null) */
+    private static String jsonString(String column) {
+        String escaped = column;
+        String[][] replacements = {{"'\\'", "'\\\\'"}, {"'\"'", "'\\\"'"}, {"char(10)", "'\\n'"}, {"char(13)", "'\\r'"}, {"char(9)", "'\\t'"}};
+        for (String[] replacement : replacements) {
+            escaped = "replace(" + escaped + ", " + replacement[0] + ", " + replacement[1] + ")";
+        }
+        return "case when " + column + " is null then 'null' else concat('\"', " + escaped + ", '\"') end";
+    }
+
+    private void record(SessionImplementor session, Object entity, Serializable id, String eventType,
+                        EntityPersister persister, Object[] state) {
+        if (!(entity instanceof Member) && !(entity instanceof Team)) {
+            return;
+        }
+        events(session).add(entity.getClass().getSimpleName(), (Long) id, eventType, payload(session, persister, id, state));
+    }
+
+    /** 엔티티 상태 -> {"id":.., "username":.., "teamId":..}
+     * 연관 엔티티는 id 만, 컬렉션과 아직 로딩 안 된 지연 속성은 뺀다. */
+    private Map<String, Object> payload(SessionImplementor session, EntityPersister persister, Serializable id, Object[] state) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put(persister.getIdentifierPropertyName(), id);
+        if (state == null) {
+            return payload;
+        }
+        String[] names = persister.getPropertyNames();
+        Type[] types = persister.getPropertyTypes();
+        for (int i = 0; i < names.length; i++) {
+            Object value = state[i];
+            if (types[i].isCollectionType() || value == LazyPropertyInitializer.UNFETCHED_PROPERTY) {
+                continue;
+            }
+            if (types[i].isEntityType()) {
+                payload.put(names[i] + "Id", value == null ? null
+                        : identifier(session, ((EntityType) types[i]).getAssociatedEntityName(), value));
+            } else {
+                payload.put(names[i], value);
+            }
+        }
+        return payload;
+    }
+
+    private static Object identifier(SessionImplementor session, String entityName, Object value) {
+        if (value instanceof HibernateProxy) {
+            return ((HibernateProxy) value).getHibernateLazyInitializer().getIdentifier();
+        }
+        return session.getFactory().getMetamodel().entityPersister(entityName).getIdentifier(value, session);
+    }
+
+    private PendingEvents events(SessionImplementor session) {
+        return pending.get(session);
+    }
+
+    /** 트랜잭션 하나 동안 생긴 이벤트. 발생 순서대로 insert 해서 같은 엔티티의 이벤트 순서를 지킨다. */
+    private class PendingEvents implements SessionBuffers.Buffer {
+
+        private final List<Object[]> rows = new ArrayList<>(); // {aggregateType, aggregateId, eventType, payload}
+
+        void add(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+            try {
+                rows.add(new Object[]{aggregateType, aggregateId, eventType, objectMapper.writeValueAsString(payload)});
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("failed to serialize change event payload: " + payload, e);
+            }
+        }
+
+        /** JDBC 로 직접 넣어서 엔티티 이벤트/flush 를 다시 일으키지 않는다. */
+        @Override
+        public void beforeCommit(SessionImplementor session) {
+            write(session);
+        }
+
+        @Override
+        public void discard() {
+            rows.clear();
+        }
+
+        /** 모아둔 이벤트를 지금 insert 하고 비운다. */
+        void write(SessionImplementor session) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            session.doWork(connection -> {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                    for (Object[] row : rows) {
+                        insert.setString(1, (String) row[0]);
+                        insert.setLong(2, (Long) row[1]);
+                        insert.setString(3, (String) row[2]);
+                        insert.setString(4, (String) row[3]);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            });
+            rows.clear();
+        }
+    }
+}
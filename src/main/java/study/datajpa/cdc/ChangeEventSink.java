@@ -0,0 +1,12 @@
+package study.datajpa.cdc;
+
+import java.util.List;
+
+/** 변경 이벤트를 받아갈 곳 (파일, 메모리, 메시지 큐 ...)
+ * events 는 eventId 순서. 예외 없이 리턴하면 전달 완료로 본다.
+ * 예외를 던지면 같은 이벤트를 다음에 다시 보낸다. (at-least-once -> 받는 쪽은 eventId 로 중복 제거)
+ * */
+public interface ChangeEventSink {
+
+    void publish(List<ChangeEvent> events);
+}
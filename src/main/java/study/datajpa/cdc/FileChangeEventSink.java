@@ -0,0 +1,51 @@
+package study.datajpa.cdc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/** 변경 이벤트를 파일 끝에 한 줄에 하나씩 JSON 으로 붙인다. (JSON Lines)
+ * 디스크에 쓴(force) 뒤에 리턴하므로, 리턴 후 outbox 에서 전달 완료 처리되어도 이벤트를 잃지 않는다.
+ * */
+public class FileChangeEventSink implements ChangeEventSink {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+
+    public FileChangeEventSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<ChangeEvent> events) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (ChangeEvent event : events) {
+                buffer.write(objectMapper.writeValueAsBytes(event));
+                buffer.write('\n');
+            }
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to write change events to " + path, e);
+        }
+    }
+}
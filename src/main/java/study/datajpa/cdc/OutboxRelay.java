@@ -0,0 +1,79 @@
+package study.datajpa.cdc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** outbox_event 의 아직 안 나간 이벤트를 batchSize 개씩 eventId 순서로 싱크에 넘긴다.
+ *
+ * - at-least-once : 싱크가 리턴한 뒤에야 published_at 을 채운다. 싱크가 실패하거나 그 사이에 죽으면 다음에 다시 보낸다.
+ * - 순서 : 같은 엔티티를 바꾸는 트랜잭션은 행 락 때문에 차례로 커밋되므로 event_id 도 그 순서다.
+ *   마지막으로 보낸 id 이후만 읽지 않고 "아직 안 나간 것" 을 매번 읽어서, 늦게 커밋된 작은 id 도 빠뜨리지 않는다.
+ * - relay 는 하나만 돈다고 가정한다. (여럿이면 같은 이벤트가 중복으로 나갈 수 있다.)
+ * 빈은 ChangeEventConfig 가 datajpa.cdc.relay.enabled=true 일 때만 만든다.
+ * */
+public class OutboxRelay {
+
+    private static final RowMapper<ChangeEvent> ROW_MAPPER = (rs, rowNum) -> new ChangeEvent(
+            rs.getLong("event_id"),
+            rs.getString("aggregate_type"),
+            rs.getObject("aggregate_id", Long.class),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeEventSink sink;
+    private final int batchSize;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       ChangeEventSink sink,
+                       int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sink = sink;
+        this.batchSize = batchSize;
+    }
+
+    /** 한 배치를 보낸다. 보낸 개수 리턴 (0 이면 밀린 게 없음). 싱크 예외는 그대로 던진다. */
+    public int relayOnce() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<ChangeEvent> events = jdbcTemplate.query(
+                    "select event_id, aggregate_type, aggregate_id, event_type, payload, created_at" +
+                    " from outbox_event where published_at is null order by event_id limit ?", ROW_MAPPER, batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            sink.publish(Collections.unmodifiableList(events));
+            String ids = events.stream()
+                    .map(event -> String.valueOf(event.getEventId()))
+                    .collect(Collectors.joining(","));
+            jdbcTemplate.update("update outbox_event set published_at = current_timestamp where event_id in (" + ids + ")");
+            return events.size();
+        });
+        return relayed == null ? 0 : relayed;
+    }
+
+    /** 밀린 이벤트가 없을 때까지 보낸다. */
+    public int relayAll() {
+        int total = 0;
+        int relayed;
+        while ((relayed = relayOnce()) > 0) {
+            total += relayed;
+        }
+        return total;
+    }
+
+    /** 이미 내보낸 이벤트 중 before 이전 것을 지운다. (outbox 를 작게 유지) */
+    public int purgePublishedBefore(LocalDateTime before) {
+        return jdbcTemplate.update("delete from outbox_event where published_at < ?", Timestamp.valueOf(before));
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.cdc;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/** 백그라운드 relay : datajpa.cdc.relay.enabled=true 일 때만 동작
+ * datajpa.cdc.relay.interval  : 폴링 간격 (기본 1초)
+ * datajpa.cdc.relay.retention : 내보낸 이벤트를 이 기간 뒤에 지운다. (기본 1일)
+ * */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "datajpa.cdc.relay.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OutboxRelayScheduler {
+
+    private final OutboxRelay outboxRelay;
+
+    @Value("${datajpa.cdc.relay.retention:P1D}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${datajpa.cdc.relay.interval:PT1S}")
+    public void relay() {
+        outboxRelay.relayAll();
+    }
+
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT1H")
+    public void purge() {
+        outboxRelay.purgePublishedBefore(LocalDateTime.now().minus(retention));
+    }
+}
@@ -0,0 +1,20 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.cache.CacheStats;
+import study.datajpa.cache.MemberUsernameCache;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final MemberUsernameCache usernameCache;
+
+    /** username 캐시 적중률 */
+    @GetMapping("/cache/username/stats")
+    public CacheStats usernameCacheStats(){
+        return usernameCache.stats();
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberDtoJsonWriter;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberController {
+
+    private final MemberRepository memberRepository;
+    private final MemberDtoJsonWriter memberDtoJsonWriter;
+
+    /** 회원 DTO 목록 : 조회는 요청 스레드에서 끝내고, 응답은 한 행씩 스트림으로 쓴다. */
+    @GetMapping("/members/dto")
+    public ResponseEntity<StreamingResponseBody> memberDtos(){
+        List<MemberDto> members = memberRepository.findMemberDto();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> memberDtoJsonWriter.write(members, out));
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class AgeGroupDto {
+
+    private int ageFrom; // 10살 단위 나이대 시작 (0, 10, 20 ...)
+    private long memberCount;
+
+    /**  @Query("select new study.datajpa.dto.AgeGroupDto(m.age / 10 * 10, count(m)) ...")
+     *  나이 계산식의 타입은 DB/방언에 따라 달라질 수 있어서 Number 로 받는다. */
+    public AgeGroupDto(Number ageFrom, Long memberCount) {
+        this.ageFrom = ageFrom.intValue();
+        this.memberCount = memberCount;
+    }
+}
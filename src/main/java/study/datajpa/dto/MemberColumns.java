@@ -0,0 +1,106 @@
+package study.datajpa.dto;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** 회원 목록을 컬럼별 배열로 담는다. (행마다 객체를 만들지 않는 대량 조회 결과)
+ * i 번째 회원 = ids[i], usernames[i], ages[i], teamIds[i], teamNames[i]
+ * 팀이 없는 회원은 teamIds[i] = 0, teamNames[i] = null
+ * */
+public final class MemberColumns {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private long[] ids;
+    private String[] usernames;
+    private int[] ages;
+    private long[] teamIds;
+    private String[] teamNames;
+
+    public MemberColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public MemberColumns(int capacity) {
+        int initial = Math.max(capacity, 1);
+        ids = new long[initial];
+        usernames = new String[initial];
+        ages = new int[initial];
+        teamIds = new long[initial];
+        teamNames = new String[initial];
+    }
+
+    public void add(long id, String username, int age, long teamId, String teamName) {
+        if (size == ids.length) {
+            grow(size * 2);
+        }
+        ids[size] = id;
+        usernames[size] = username;
+        ages[size] = age;
+        teamIds[size] = teamId;
+        teamNames[size] = teamName;
+        size++;
+    }
+
+    /** 순서대로 이어 붙인다. (병렬로 읽은 id 구간 합치기) */
+    public static MemberColumns concat(List<MemberColumns> parts) {
+        int total = 0;
+        for (MemberColumns part : parts) {
+            total += part.size;
+        }
+        MemberColumns result = new MemberColumns(total);
+        for (MemberColumns part : parts) {
+            System.arraycopy(part.ids, 0, result.ids, result.size, part.size);
+            System.arraycopy(part.usernames, 0, result.usernames, result.size, part.size);
+            System.arraycopy(part.ages, 0, result.ages, result.size, part.size);
+            System.arraycopy(part.teamIds, 0, result.teamIds, result.size, part.size);
+            System.arraycopy(part.teamNames, 0, result.teamNames, result.size, part.size);
+            result.size += part.size;
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int index) {
+        return ids[checkIndex(index)];
+    }
+
+    public String getUsername(int index) {
+        return usernames[checkIndex(index)];
+    }
+
+    public int getAge(int index) {
+        return ages[checkIndex(index)];
+    }
+
+    public long getTeamId(int index) {
+        return teamIds[checkIndex(index)];
+    }
+
+    public String getTeamName(int index) {
+        return teamNames[checkIndex(index)];
+    }
+
+    public MemberDto toDto(int index) {
+        return new MemberDto(getId(index), getUsername(index), getTeamName(index));
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return index;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        usernames = Arrays.copyOf(usernames, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        teamIds = Arrays.copyOf(teamIds, capacity);
+        teamNames = Arrays.copyOf(teamNames, capacity);
+    }
+}
@@ -1,13 +1,20 @@
 package study.datajpa.dto;
 
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
-@Data
-public class MemberDto {
+/** 조회 전용 DTO : 불변. 필드 3개만 가지는 작은 객체로 유지한다.
+ * JSON 은 MemberDtoJsonSerializer 가 직접 쓴다. (빈 프로퍼티 탐색 없음)
+ * */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class MemberDto {
 
-    private Long id;
-    private String username;
-    private String teamName;
+    private final Long id;
+    private final String username;
+    private final String teamName;
 
     /**  @Query 에 쓰일 생성자 필요
      *  @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)
@@ -0,0 +1,42 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/** MemberDto -> {"id":1,"username":"member1","teamName":"teamA"}
+ * 스프링의 ObjectMapper 에 등록된다. (@JsonComponent)
+ * 필드 이름은 미리 인코딩해둔 SerializedString 을 써서 행마다 이름을 다시 인코딩하지 않는다.
+ * */
+@JsonComponent
+public class MemberDtoJsonSerializer extends JsonSerializer<MemberDto> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString USERNAME = new SerializedString("username");
+    private static final SerializedString TEAM_NAME = new SerializedString("teamName");
+
+    @Override
+    public void serialize(MemberDto dto, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        write(dto, gen);
+    }
+
+    /** ObjectMapper 없이 JsonGenerator 로 바로 쓸 때도 같은 형식 (MemberDtoJsonWriter) */
+    static void write(MemberDto dto, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(ID);
+        if (dto.getId() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(dto.getId());
+        }
+        gen.writeFieldName(USERNAME);
+        gen.writeString(dto.getUsername());
+        gen.writeFieldName(TEAM_NAME);
+        gen.writeString(dto.getTeamName());
+        gen.writeEndObject();
+    }
+}
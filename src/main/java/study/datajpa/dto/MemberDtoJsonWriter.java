@@ -0,0 +1,36 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/** MemberDto 목록을 JSON 배열로 바로 흘려보낸다.
+ * 목록 전체를 트리/문자열로 만들지 않고, 직렬화기 조회도 없이 한 행씩 스트림에 쓴다.
+ * 다 쓰면 flush 하지만 out 은 닫지 않는다.
+ * */
+@Component
+public class MemberDtoJsonWriter {
+
+    private final JsonFactory jsonFactory;
+
+    public MemberDtoJsonWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public void write(List<MemberDto> members, OutputStream out) throws IOException {
+        try (JsonGenerator gen = jsonFactory.createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) { // out 은 호출한 쪽이 닫는다.
+            gen.writeStartArray();
+            for (MemberDto member : members) {
+                MemberDtoJsonSerializer.write(member, gen);
+            }
+            gen.writeEndArray();
+        }
+    }
+}
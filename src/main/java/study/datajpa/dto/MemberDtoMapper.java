@@ -0,0 +1,42 @@
+package study.datajpa.dto;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** (id, username, teamName) 순서의 행 -> MemberDto
+ * 생성자 표현식(select new ...)의 리플렉션 호출이나 컬럼 이름 조회 없이 위치로 바로 꺼낸다.
+ * 네이티브 쿼리(Object[]), JdbcTemplate 에서 같은 컬럼 순서로 쓴다.
+ * */
+public final class MemberDtoMapper {
+
+    /** JDBC : select member_id, username, team_name ... 순서 */
+    public static final RowMapper<MemberDto> ROW_MAPPER = (rs, rowNum) -> {
+        long id = rs.getLong(1);
+        return new MemberDto(rs.wasNull() ? null : id, rs.getString(2), rs.getString(3));
+    };
+
+    private MemberDtoMapper() {
+    }
+
+    public static MemberDto fromRow(Object[] row) {
+        return new MemberDto(toLong(row[0]), (String) row[1], (String) row[2]);
+    }
+
+    public static List<MemberDto> fromRows(List<Object[]> rows) {
+        List<MemberDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(fromRow(row));
+        }
+        return result;
+    }
+
+    /** 네이티브 쿼리는 DB 에 따라 BigInteger/BigDecimal/Long 으로 온다. */
+    private static Long toLong(Object value) {
+        if (value == null || value instanceof Long) {
+            return (Long) value;
+        }
+        return ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private Double averageAge; // 회원이 없으면 null
+
+    /**  @Query("select new study.datajpa.dto.TeamStatsDto(t.id, t.name, count(m), avg(m.age))
+     *          from Team t left join t.members m group by t.id, t.name") */
+    public TeamStatsDto(Long teamId, String teamName, Long memberCount, Double averageAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.averageAge = averageAge;
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.entity;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/** 아카이브 작업 진행 위치. 작업이 중간에 멈추면 남아 있다가 다음 실행 때 이어서 한다.
+ * (MemberArchiver 가 JDBC 로 다룬다. 엔티티는 테이블 정의용) */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class ArchiveCheckpoint {
+
+    @Id
+    private String job;
+    private LocalDateTime cutoff; // 이 시각 이전에 삭제된 회원을 옮기는 중
+    private long lastMemberId;    // 여기까지 옮겼다
+}
@@ -1,8 +1,12 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
+import study.datajpa.cache.EntityInvalidationListener;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
 @Getter @Setter // 실무에서는 가급적 @Setter 사용 자제.
@@ -13,6 +17,14 @@ import javax.persistence.*;
         query="select m from Member m where m.username=:username"
 )
 @NamedEntityGraph(name="Member.all", attributeNodes = @NamedAttributeNode("team") )
+@EntityListeners(EntityInvalidationListener.class) /** 저장/수정/삭제 시 캐시 무효화 */
+/** [soft delete]
+ * em.remove() 하면 delete 대신 deleted_at 만 채운다. 모든 조회(JPQL, 연관 컬렉션)에서 삭제된 회원은 빠진다.
+ * team_id 는 deleted_team_id 로 옮기고 비운다. -> 삭제된 회원만 남은 팀도 FK 에 걸리지 않고 바로 지울 수 있다.
+ * 삭제된 회원은 MemberArchiver 가 나중에 member_archive 로 옮겨서 member 테이블을 작게 유지한다. (팀 id 는 보관) */
+@SQLDelete(sql = "update member set deleted_at = current_timestamp, deleted_team_id = team_id, team_id = null where member_id = ?")
+@Where(clause = "deleted_at is null")
+@Table(indexes = @Index(name = "idx_member_deleted", columnList = "deletedAt, member_id")) // MemberArchiver 배치 조회 (컬럼 논리 이름)
 public class Member {
 
     @Id @GeneratedValue
@@ -29,6 +41,9 @@ public class Member {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    private LocalDateTime deletedAt; // soft delete 시각. null 이면 살아있는 회원
+    private Long deletedTeamId;      // soft delete 직전의 팀 id (FK 없음)
+
     /** JPA 엔티티는 반드시 기본 생성자가 필요 */
     /* protected Member(){ //  -> @@NoArgsConstructor(access = AccessLevel.PROTECTED) 로 대체하자.
     } */
@@ -50,9 +65,16 @@ public class Member {
         }
     }
 
-    /** 연관관계 편의 메소드 */
+    /** 연관관계 편의 메소드 : 양쪽(Member.team, Team.members)을 같이 맞춘다.
+     * 바이트코드 향상(enableAssociationManagement)으로 컴파일되면 this.team 대입이 이미 양쪽을 맞춰주므로,
+     * 향상 여부와 관계없이 같은 결과가 나오도록 중복 확인 후에만 직접 넣고 뺀다. (IDE 컴파일, unenhanced 소스셋) */
     public void changeTeam(Team team){
+        if (this.team != null && this.team != team) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        if (team != null && !team.getMembers().contains(this)) {
+            team.getMembers().add(this);
+        }
     }
 }
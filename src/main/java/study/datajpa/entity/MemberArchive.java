@@ -0,0 +1,30 @@
+package study.datajpa.entity;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/** 삭제된 회원 보관 테이블 (member_archive). MemberArchiver 만 JDBC 로 채우고, JPA 에서는 조회만 한다. */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "username", "age"})
+public class MemberArchive {
+
+    @Id
+    @Column(name = "member_id")
+    private Long id;
+    private String username;
+    private int age;
+
+    @Column(name = "team_id")
+    private Long teamId; // 팀은 지워질 수 있으므로 연관관계 대신 id 만 보관
+
+    private LocalDateTime deletedAt;
+    private LocalDateTime archivedAt;
+}
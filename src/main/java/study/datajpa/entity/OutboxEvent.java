@@ -0,0 +1,32 @@
+package study.datajpa.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/** 변경 이벤트 outbox 테이블 (outbox_event)
+ * Member/Team 변경과 같은 트랜잭션에서 ChangeEventRecorder 가 JDBC 로 쌓고, OutboxRelay 가 읽어서 내보낸다.
+ * (엔티티는 테이블 정의용)
+ * OutboxRelay 가 "published_at is null order by event_id" 로 계속 폴링하므로 (published_at, event_id) 인덱스를 둔다. */
+@Entity
+@Table(indexes = @Index(name = "idx_outbox_event_published", columnList = "publishedAt, event_id")) // 컬럼 논리 이름
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "aggregateType", "aggregateId", "eventType"})
+public class OutboxEvent {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY) // 커밋 순서대로 증가하는 번호 = 전달 순서
+    @Column(name = "event_id")
+    private Long id;
+
+    private String aggregateType; // Member, Team
+    private Long aggregateId;     // 변경된 엔티티 id (벌크 이벤트도 행마다 1건)
+    private String eventType;     // INSERT, UPDATE, DELETE, BULK_UPDATE
+
+    @Column(length = 4000)
+    private String payload;       // JSON
+
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt; // null 이면 아직 전달 안 됨
+}
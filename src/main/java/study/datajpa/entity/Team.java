@@ -1,6 +1,7 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import study.datajpa.cache.EntityInvalidationListener;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -10,6 +11,7 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@EntityListeners(EntityInvalidationListener.class) /** 저장/수정/삭제 시 캐시 무효화 */
 public class Team {
 
     @Id @GeneratedValue
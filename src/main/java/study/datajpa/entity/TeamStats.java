@@ -0,0 +1,28 @@
+package study.datajpa.entity;
+
+import lombok.*;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/** 팀별 통계를 미리 계산해서 저장해 두는 테이블 (materialized)
+ * Member 저장/삭제/팀 변경/벌크 수정 시 TeamStatsMaintainer 가 커밋 직전에 증감분만 반영한다.
+ * -> 통계 조회가 회원 수와 관계없이 PK 조회 1번.
+ * */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+    private long memberCount;
+    private long ageSum;
+
+    public double getAverageAge() {
+        return memberCount == 0 ? 0 : (double) ageSum / memberCount;
+    }
+}
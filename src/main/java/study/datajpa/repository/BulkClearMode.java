@@ -0,0 +1,21 @@
+package study.datajpa.repository;
+
+/** 벌크성 수정 쿼리 실행 후 영속성 컨텍스트를 어떻게 정리할지 정한다.
+ * 벌크 연산은 영속성 컨텍스트를 무시하고 DB에 바로 쿼리하기 때문에,
+ * 이미 영속 상태인 엔티티는 DB와 값이 달라진다.
+ * */
+public enum BulkClearMode {
+
+    /** 영속성 컨텍스트 전체를 비운다. @Modifying(clearAutomatically = true) 와 같다. */
+    CLEAR_ALL,
+
+    /** 벌크 연산이 실제로 바꾼 id(잠근 행)의 영속 엔티티만 준영속(detach)으로 만든다.
+     * 다음 조회 때 해당 엔티티만 DB에서 다시 읽는다.
+     * 떼어낸 엔티티를 들고 있는 초기화된 연관 컬렉션(Team.members)은 주인 엔티티를 refresh 해서 다시 읽게 한다. */
+    EVICT_MATCHING,
+
+    /** 벌크 연산이 실제로 바꾼 id(잠근 행)의 영속 엔티티만 DB 값으로 refresh 한다.
+     * 엔티티 인스턴스(참조)가 그대로 유지되어야 할 때 쓴다. 엔티티마다 select 1번.
+     * 벌크 삭제는 다시 읽을 행이 없으므로 EVICT_MATCHING 과 같이 동작한다. */
+    REFRESH_MATCHING
+}
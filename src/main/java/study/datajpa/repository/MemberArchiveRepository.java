@@ -0,0 +1,11 @@
+package study.datajpa.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import study.datajpa.entity.MemberArchive;
+
+import java.util.List;
+
+public interface MemberArchiveRepository extends JpaRepository<MemberArchive, Long> {
+
+    List<MemberArchive> findByUsername(String username);
+}
@@ -0,0 +1,113 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.cache.CacheInvalidator;
+import study.datajpa.cache.CacheRegions;
+import study.datajpa.cdc.ChangeEvent;
+import study.datajpa.cdc.ChangeEventRecorder;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Member 벌크 수정/삭제 (MemberRepositoryImpl, MemberJpaRepository 가 같이 쓴다.)
+ *
+ * 대상 행을 JVM 으로 읽지 않고 전부 set 기반 SQL 로 처리한다.
+ * 1. 조건에 맞는 행을 select ... for update 로 잠근다. (결과는 읽지 않는다. H2 는 실행할 때 전부 잠근다)
+ * 2. 팀 통계 증감분, 변경 이벤트를 같은 조건의 SQL 로 DB 안에서 계산해서 쓴다.
+ * 3. 같은 조건으로 update 1번.
+ * -> 잠근 행은 2, 3 사이에 바뀌지 않으므로 통계/이벤트와 update 가 같은 행을 본다.
+ *    (잠근 뒤에 새로 커밋된 행이 끼어드는 좁은 구간은 남는다. 어긋나면 TeamStatsMaintainer.rebuild())
+ * 영속성 컨텍스트 정리를 위해, 호출한 쪽이 넘긴 영속 Member id 중 대상인 것만 DB 조건으로 골라서 돌려준다.
+ * */
+@Component
+@RequiredArgsConstructor
+public class MemberBulkOperations {
+
+    private static final int IN_CLAUSE_SIZE = 1000; // in (...) 파라미터 수 제한
+    private static final String LIVE_AGE_AT_LEAST = "m.age >= ? and m.deleted_at is null"; // member 테이블 SQL 조건
+
+    private final EntityManager em;
+    private final TeamStatsMaintainer teamStatsMaintainer;
+    private final ChangeEventRecorder changeEventRecorder;
+    private final CacheInvalidator cacheInvalidator;
+
+    /** age 이상인 살아있는 회원 나이 +1. managedIds : 영속성 컨텍스트에 있는 Member id (정리 대상을 고를 때 쓴다) */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Result agePlus(int age, Collection<Long> managedIds) {
+        lock(LIVE_AGE_AT_LEAST, age);
+        Set<Long> touched = matching(managedIds, age);
+
+        teamStatsMaintainer.onBulkAgePlus(LIVE_AGE_AT_LEAST, age);
+        changeEventRecorder.recordBulkMembers(ChangeEvent.BULK_UPDATE, "bulkAgePlus", "m.age + 1", LIVE_AGE_AT_LEAST, age);
+        /** HQL 벌크 DML 에는 @Where 가 붙지 않는다. soft delete 된 회원은 직접 빼야 한다. */
+        int resultCount = em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age and m.deletedAt is null")
+                .setParameter("age", age)
+                .executeUpdate();
+
+        cacheInvalidator.evictRegion(CacheRegions.MEMBER); // 벌크 연산은 엔티티 리스너를 안 거친다.
+        return new Result(resultCount, touched);
+    }
+
+    /** age 이상인 살아있는 회원 soft delete. (em.remove() 의 @SQLDelete 와 같은 값을 채운다.) */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Result delete(int age, Collection<Long> managedIds) {
+        lock(LIVE_AGE_AT_LEAST, age);
+        Set<Long> touched = matching(managedIds, age);
+
+        teamStatsMaintainer.onBulkDelete(LIVE_AGE_AT_LEAST, age);
+        changeEventRecorder.recordBulkMembers(ChangeEvent.DELETE, "bulkDelete", "m.age", LIVE_AGE_AT_LEAST, age); // em.remove() 의 soft delete 와 같은 이벤트 타입
+        int resultCount = em.createNativeQuery("update member m" +
+                        " set deleted_at = current_timestamp, deleted_team_id = team_id, team_id = null" +
+                        " where " + LIVE_AGE_AT_LEAST)
+                .setParameter(1, age)
+                .executeUpdate();
+
+        cacheInvalidator.evictRegion(CacheRegions.MEMBER);
+        cacheInvalidator.evictRegion(CacheRegions.MEMBER_USERNAME); // 삭제된 id 를 가리키는 username 항목
+        return new Result(resultCount, touched);
+    }
+
+    /** condition 에 맞는 member 행을 잠근다. 결과 행은 읽지 않고 닫는다. */
+    private void lock(String condition, Object... parameters) {
+        em.unwrap(SessionImplementor.class).doWork(connection -> {
+            try (PreparedStatement select = connection.prepareStatement(
+                    "select m.member_id from member m where " + condition + " for update")) {
+                for (int i = 0; i < parameters.length; i++) {
+                    select.setObject(i + 1, parameters[i]);
+                }
+                select.executeQuery().close();
+            }
+        });
+    }
+
+    /** 영속 Member id 중 벌크 조건에 걸리는 것 (조건은 DB 가 평가한다. 영속성 컨텍스트 크기만큼만 읽는다) */
+    private Set<Long> matching(Collection<Long> managedIds, int age) {
+        Set<Long> result = new LinkedHashSet<>();
+        List<Long> ids = new ArrayList<>(managedIds);
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_SIZE) {
+            result.addAll(em.createQuery("select m.id from Member m where m.id in :ids and m.age >= :age", Long.class)
+                    .setParameter("ids", ids.subList(from, Math.min(ids.size(), from + IN_CLAUSE_SIZE)))
+                    .setParameter("age", age)
+                    .getResultList());
+        }
+        return result;
+    }
+
+    /** 벌크 연산 결과 : 바뀐 행 수, 넘겨받은 영속 Member id 중 바뀐 것 */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final int count;
+        private final Set<Long> managedIds;
+    }
+}
@@ -1,10 +1,13 @@
 package study.datajpa.repository;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +17,9 @@ public class MemberJpaRepository {
     @PersistenceContext // JPA사용을 위해 필요
     private EntityManager em;
 
+    @Autowired
+    private MemberBulkOperations memberBulkOperations;
+
     public Member save(Member member){
         em.persist(member);
         return member;
@@ -77,11 +83,10 @@ public class MemberJpaRepository {
             .getSingleResult();
     }
 
-    /** 벌크성 수정 쿼리. 순수 JPA */
+    /** 벌크성 수정 쿼리. 순수 JPA
+     * 팀 통계/변경 이벤트가 커밋 때 반영되므로 트랜잭션이 필요하다. (밖에서 부르면 여기서 시작) */
+    @Transactional
     public int bulkAgePlus(int age){
-        int resultCount= em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
-                .setParameter("age", age)
-                .executeUpdate();
-        return resultCount; // 수정된 레코드의 개수를 리턴한다.
+        return memberBulkOperations.agePlus(age, Collections.emptyList()).getCount(); // 수정된 레코드의 개수를 리턴한다.
     }
 }
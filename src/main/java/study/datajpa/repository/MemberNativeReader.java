@@ -0,0 +1,136 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.dto.MemberColumns;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberDtoMapper;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** member/team 대량 조회용 JDBC 경로 (MemberRepositoryImpl 에서 위임)
+ *
+ * JPQL -> 엔티티 생성 -> 영속성 컨텍스트 등록 -> DTO 변환을 건너뛰고, ResultSet 에서 DTO/컬럼 배열로 바로 읽는다.
+ * - fetchSize : 드라이버가 한 번에 가져오는 행 수. 대량 조회에서 왕복 횟수를 줄인다. (datajpa.native-read.fetch-size)
+ * - 병렬 : member_id 구간(datajpa.native-read.range-size)으로 나눠, 작업자마다 커넥션 하나로 구간을 차례로 가져가 읽는다.
+ *   작업자는 빈 하나가 공유하는 ForkJoinPool 에서 돈다. 풀 크기 = min(datajpa.native-read.max-parallelism, 커넥션 풀 크기)
+ *   -> 동시에 여러 번 불러도 이 경로가 잡는 커넥션은 커넥션 풀 크기를 넘지 않는다. 풀은 빈이 내려갈 때 닫는다.
+ *   트랜잭션 안에서는 아직 커밋 안 된 변경이 다른 커넥션에서 안 보이므로 순차로 읽는다.
+ * @Where 가 붙지 않는 네이티브 SQL 이므로 soft delete 조건(deleted_at is null)을 직접 건다.
+ * */
+@Component
+public class MemberNativeReader {
+
+    static final String DTO_SQL =
+            "select m.member_id, m.username, t.name from member m" +
+            " join team t on t.team_id = m.team_id" +
+            " where m.deleted_at is null";
+    static final String COLUMNS_SQL =
+            "select m.member_id, m.username, m.age, m.team_id, t.name from member m" +
+            " left join team t on t.team_id = m.team_id" +
+            " where m.deleted_at is null and m.member_id between ? and ?" +
+            " order by m.member_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long rangeSize;
+    private final ForkJoinPool pool;
+
+    public MemberNativeReader(DataSource dataSource,
+                              @Value("${datajpa.native-read.fetch-size:1000}") int fetchSize,
+                              @Value("${datajpa.native-read.range-size:100000}") long rangeSize,
+                              @Value("${datajpa.native-read.max-parallelism:4}") int maxParallelism,
+                              @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.rangeSize = rangeSize;
+        this.pool = new ForkJoinPool(Math.max(1, Math.min(maxParallelism, connectionPoolSize)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** findMemberDto 와 같은 결과 (팀 있는 회원만) */
+    public List<MemberDto> readMemberDtos() {
+        return jdbcTemplate.query(DTO_SQL, MemberDtoMapper.ROW_MAPPER);
+    }
+
+    /** 살아있는 회원 전체를 member_id 순서로 */
+    public MemberColumns readColumns(int parallelism) {
+        if (parallelism <= 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return readColumns(Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                "select min(member_id) as lo, max(member_id) as hi from member where deleted_at is null");
+        if (bounds.get("lo") == null) {
+            return new MemberColumns();
+        }
+        long lo = ((Number) bounds.get("lo")).longValue();
+        long hi = ((Number) bounds.get("hi")).longValue();
+
+        List<long[]> ranges = new ArrayList<>();
+        for (long from = lo; from <= hi; from += rangeSize) {
+            long to = Math.min(hi, from + rangeSize - 1);
+            ranges.add(new long[]{from, to});
+            if (to == hi) {
+                break; // from + rangeSize 오버플로 방지
+            }
+        }
+
+        /** 호출 하나가 쓰는 작업자(=커넥션) 수는 parallelism 과 공유 풀 크기 중 작은 값.
+         * 작업자는 다음 구간 번호를 가져가서 읽고, 결과는 구간 번호 자리에 넣는다. -> member_id 순서 유지 */
+        MemberColumns[] parts = new MemberColumns[ranges.size()];
+        AtomicInteger next = new AtomicInteger();
+        int workerCount = Math.min(Math.min(parallelism, pool.getParallelism()), ranges.size());
+        List<Callable<Void>> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(() -> {
+                for (int index = next.getAndIncrement(); index < parts.length; index = next.getAndIncrement()) {
+                    long[] range = ranges.get(index);
+                    parts[index] = readColumns(range[0], range[1]);
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> worker : pool.invokeAll(workers)) {
+                worker.get();
+            }
+            return MemberColumns.concat(Arrays.asList(parts));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while reading members", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private MemberColumns readColumns(long fromId, long toId) {
+        MemberColumns columns = new MemberColumns();
+        jdbcTemplate.query(COLUMNS_SQL, (RowCallbackHandler) rs -> columns.add(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getInt(3),
+                rs.getLong(4), // 팀 없음(null) -> 0
+                rs.getString(5)), fromId, toId);
+        return columns;
+    }
+}
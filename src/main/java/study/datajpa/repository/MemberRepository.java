@@ -5,14 +5,15 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import study.datajpa.dto.AgeGroupDto;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.TeamStatsDto;
 import study.datajpa.entity.Member;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 /** 인터페이스 JpaRepository를 상속받는다 */
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
@@ -23,7 +24,8 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     /** NamedQuery  */
     //@Query(name="Member.findByUsername")  /** 이 애노테이션 지워도 동작함! */
-    List<Member> findByUsername(@Param("username")String username); // JPQL의 파라미터를 넣을 때 @Param를 명시한다.
+    // List<Member> findByUsername(@Param("username")String username); // JPQL의 파라미터를 넣을 때 @Param를 명시한다.
+    // -> username 캐시를 거치도록 MemberRepositoryCustom 으로 옮김
 
     /** @Query : 긴 JPQL 작성 가능하면서, 함수명을 짧게 작성 가능.*/
     @Query("select m from Member m  where m.username = :username and m.age = :age")
@@ -37,14 +39,25 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t ")
     List<MemberDto> findMemberDto();
 
+    /** 집계 : 팀별 회원 수, 평균 나이. 회원 없는 팀도 나오도록 Team 기준 left join */
+    @Query("select new study.datajpa.dto.TeamStatsDto(t.id, t.name, count(m), avg(m.age))" +
+            " from Team t left join t.members m group by t.id, t.name")
+    List<TeamStatsDto> findTeamStats();
+
+    /** 집계 : 10살 단위 나이대별 회원 수 */
+    @Query("select new study.datajpa.dto.AgeGroupDto(m.age / 10 * 10, count(m))" +
+            " from Member m group by m.age / 10 * 10 order by m.age / 10 * 10")
+    List<AgeGroupDto> findAgeHistogram();
+
     /** 파라미터 바인딩 : 이름 기반으로 쓸 것! */
     @Query("select m from Member m where m.username in :names")
     List<Member> findByName(@Param("names") Collection<String> names);
 
     /** 반환 타입 */
     List<Member> findListByUsername(String username); // 컬렉션
-    Member findMemberByUsername(String username); // 단건
-    Optional<Member> findOptionalByUsername(String username); //단건 Optional
+    // Member findMemberByUsername(String username); // 단건
+    // Optional<Member> findOptionalByUsername(String username); //단건 Optional
+    // -> username 캐시를 거치도록 MemberRepositoryCustom 으로 옮김
 
     /** 페이징 : Page Pageable 인터페이스를 넘기는데, PageRequest 구현체를 주로 씀. */
     @Query(value = "select m from Member m left join m.team t",
@@ -59,10 +72,14 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     /** 페이징 : Slice  */
     Slice<Member> findMemberSliceByAge(int age, Pageable pageable); // Pageable : 현재 페이지
 
-    /** 벌크성 수정 쿼리 : @Modifying 애노테이션 붙여야 수정 실행됨을 유의.  */
-    @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age+1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
+    /** 벌크성 수정 쿼리 : @Modifying 애노테이션 붙여야 수정 실행됨을 유의.
+     * @Modifying(clearAutomatically = true)
+     * @Query("update Member m set m.age = m.age+1 where m.age >= :age")
+     * int bulkAgePlus(@Param("age") int age);
+     *
+     * -> clearAutomatically 는 영속성 컨텍스트 전체를 비워서 관계없는 엔티티까지 다시 조회하게 된다.
+     *    수정 대상만 정리할 수 있도록 MemberRepositoryImpl 로 옮김. (BulkClearMode 참고)
+     * */
 
     /**[중요] Fetch Join 으로 N+1 문제를 해결 : Member 조회 시 연관된 Team도 같이 끌고와 조회함  */
     @Query("select m from Member m left join fetch m.team")
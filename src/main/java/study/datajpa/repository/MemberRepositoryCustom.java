@@ -1,9 +1,37 @@
 package study.datajpa.repository;
 
+import study.datajpa.dto.MemberColumns;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    /** username 조회 : MemberUsernameCache 를 거친다. (없는 username 도 잠시 캐시) */
+    List<Member> findByUsername(String username);
+    Member findMemberByUsername(String username); // 단건. 없으면 null
+    Optional<Member> findOptionalByUsername(String username); //단건 Optional
+
+    /** username 으로 DTO 조회. 기본은 살아있는 회원(member 테이블)만,
+     * includeArchive = true 이면 삭제된 회원(soft delete, member_archive)까지 같이 조회한다. */
+    List<MemberDto> findMemberDtoByUsername(String username, boolean includeArchive);
+
+    /** 대량 조회 (JDBC) : findMemberDto 와 같은 결과를 엔티티, 영속성 컨텍스트를 거치지 않고 읽는다. */
+    List<MemberDto> findMemberDtoNative();
+
+    /** 대량 조회 (JDBC) : 살아있는 회원 전체를 컬럼 배열로. member_id 순서.
+     * parallelism > 1 이면 id 구간을 나눠 병렬로 읽는다. (트랜잭션 밖에서 호출할 때만, 최대 min(datajpa.native-read.max-parallelism, 커넥션 풀 크기)) */
+    MemberColumns findMemberColumns(int parallelism);
+
+    /** 벌크성 수정 쿼리 : 실행 후 영속성 컨텍스트 전체를 비운다. (clearAutomatically = true 와 동일) */
+    int bulkAgePlus(int age);
+
+    /** 벌크성 수정 쿼리 : 수정 대상이 된 Member 만 골라서 영속성 컨텍스트를 정리한다. */
+    int bulkAgePlus(int age, BulkClearMode mode);
+
+    /** 벌크성 삭제 : age 이상인 회원을 soft delete 하고, 삭제된 Member 를 영속성 컨텍스트에서 정리한다. */
+    int bulkDelete(int age, BulkClearMode mode);
 }
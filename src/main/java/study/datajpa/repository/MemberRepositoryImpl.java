@@ -1,19 +1,233 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.cache.MemberUsernameCache;
+import study.datajpa.dto.MemberColumns;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberDtoMapper;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 @RequiredArgsConstructor // private final 필드의 생성자를 자동 생성하여 빈 주입
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     private final EntityManager em;
+    private final MemberUsernameCache usernameCache;
+    private final MemberBulkOperations memberBulkOperations;
+    private final MemberNativeReader nativeReader;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m"
                 ).getResultList();
     }
+
+    @Override
+    public List<Member> findByUsername(String username) {
+        return findCachedByUsername(username);
+    }
+
+    @Override
+    public Member findMemberByUsername(String username) {
+        List<Member> result = findCachedByUsername(username);
+        if (result.size() > 1) { // 쿼리 메소드와 같은 예외 (NonUniqueResultException -> IncorrectResultSizeDataAccessException)
+            throw new IncorrectResultSizeDataAccessException(1, result.size());
+        }
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    @Override
+    public Optional<Member> findOptionalByUsername(String username) {
+        return Optional.ofNullable(findMemberByUsername(username));
+    }
+
+    /** username 캐시 조회
+     * 1. 캐시 적중 : 캐시된 id 중 1차 캐시에 없는 것만 in 쿼리 1번으로 읽는다. 전부 1차 캐시에 있으면 쿼리 없음
+     * 2. 없는 username 으로 캐시됨 : 쿼리 없이 빈 목록
+     * 3. 캐시에 없음 : NamedQuery(Member.findByUsername) 실행 후 결과 id 를 캐시
+     * */
+    private List<Member> findCachedByUsername(String username) {
+        flushPendingChanges();
+
+        List<Long> ids = usernameCache.get(username);
+        if (ids != null) {
+            if (ids.isEmpty()) {
+                return new ArrayList<>();
+            }
+            boolean loaded = !allManaged(ids);
+            List<Member> members = em.unwrap(Session.class).byMultipleIds(Member.class)
+                    .enableSessionCheck(true) // 1차 캐시에 있는 id 는 쿼리에서 뺀다.
+                    .multiLoad(ids);          // id 순서 그대로, 없는 id 는 null
+            if (members.stream().allMatch(member -> member != null && member.getDeletedAt() == null
+                    && username.equals(member.getUsername()))) {
+                usernameCache.recordHit(loaded);
+                return new ArrayList<>(members);
+            }
+            usernameCache.recordStaleHit(); // 캐시가 낡았다. DB 조회로 넘어간다.
+            usernameCache.evictUsername(username);
+        }
+
+        long generation = usernameCache.generation();
+        List<Member> members = em.createNamedQuery("Member.findByUsername", Member.class)
+                .setParameter("username", username)
+                .getResultList();
+        List<Long> memberIds = new ArrayList<>();
+        for (Member member : members) {
+            memberIds.add(member.getId());
+        }
+        usernameCache.put(username, memberIds, generation);
+        return members;
+    }
+
+    /** id 가 전부 1차 캐시에 올라와 있는지 (SQL 없이 꺼낼 수 있는지) */
+    private boolean allManaged(List<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Long id : ids) {
+            if (session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister)) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** JPQL 조회는 실행 전에 자동으로 flush 해서 아직 DB에 안 간 변경(persist, setUsername)을 반영한다.
+     * 캐시를 먼저 보는 경우에도 같은 결과가 나오도록, 쓰기 트랜잭션 안이면 먼저 flush 한다.
+     * flush 시점에 EntityInvalidationListener 가 관련 캐시를 지운다. */
+    private void flushPendingChanges() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            em.flush();
+        }
+    }
+
+    @Override
+    public List<MemberDto> findMemberDtoByUsername(String username, boolean includeArchive) {
+        if (!includeArchive) { // @Where 로 삭제된 회원 제외
+            return em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                            " from Member m left join m.team t where m.username = :username", MemberDto.class)
+                    .setParameter("username", username)
+                    .getResultList();
+        }
+        /** 네이티브 쿼리에는 @Where 가 붙지 않아서, 아직 옮겨지지 않은 soft delete 회원도 같이 나온다.
+         * soft delete 된 회원의 팀은 deleted_team_id 에 있다. */
+        List<Object[]> rows = em.createNativeQuery(
+                        "select m.member_id, m.username, t.name from member m" +
+                        " left join team t on t.team_id = coalesce(m.team_id, m.deleted_team_id) where m.username = :username" +
+                        " union all" +
+                        " select a.member_id, a.username, t.name from member_archive a" +
+                        " left join team t on t.team_id = a.team_id where a.username = :username")
+                .setParameter("username", username)
+                .getResultList();
+        return MemberDtoMapper.fromRows(rows);
+    }
+
+    /** JDBC 로 읽으므로, 같은 트랜잭션의 아직 flush 안 된 변경이 보이도록 먼저 flush 한다. */
+    @Override
+    public List<MemberDto> findMemberDtoNative() {
+        flushPendingChanges();
+        return nativeReader.readMemberDtos();
+    }
+
+    @Override
+    public MemberColumns findMemberColumns(int parallelism) {
+        flushPendingChanges();
+        return nativeReader.readColumns(parallelism);
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        return bulkAgePlus(age, BulkClearMode.CLEAR_ALL);
+    }
+
+    /** 벌크성 수정 쿼리 + 선택적 영속성 컨텍스트 정리
+     * 잠금, 팀 통계 증감분, Member 영역 전체 무효화, 변경 이벤트(outbox)는 MemberBulkOperations 가 set 기반 SQL 로 처리한다.
+     * 영속 Member 중 벌크 조건에 걸리는 id 는 DB 가 골라준다. (조건을 메모리에서 다시 평가하지 않는다) 그 Member 만 detach / refresh 한다.
+     * 조건에 안 걸린 Member, 그리고 Team 은 영속 상태 그대로 남기 때문에 다시 조회해도 쿼리가 안 나간다.
+     * */
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age, BulkClearMode mode) {
+        em.flush(); // 아직 DB에 안 간 변경을 먼저 반영해야 벌크 조건이 메모리 상태와 같은 행을 고른다.
+        MemberBulkOperations.Result result = memberBulkOperations.agePlus(age, managedMemberIds(mode));
+        syncPersistenceContext(result.getManagedIds(), mode, true);
+        return result.getCount();
+    }
+
+    /** 벌크 삭제(soft delete). 삭제된 행은 다시 읽을 수 없으므로 REFRESH_MATCHING 도 EVICT_MATCHING 처럼 detach 한다. */
+    @Override
+    @Transactional
+    public int bulkDelete(int age, BulkClearMode mode) {
+        em.flush();
+        MemberBulkOperations.Result result = memberBulkOperations.delete(age, managedMemberIds(mode));
+        syncPersistenceContext(result.getManagedIds(), mode, false);
+        return result.getCount();
+    }
+
+    /** CLEAR_ALL 은 전부 비우므로 고를 필요가 없다. */
+    private List<Long> managedMemberIds(BulkClearMode mode) {
+        List<Long> ids = new ArrayList<>();
+        if (mode != BulkClearMode.CLEAR_ALL) {
+            managedEntities(Member.class, m -> true).forEach(m -> ids.add(m.getId()));
+        }
+        return ids;
+    }
+
+    /** 벌크 연산이 바꾼 id 의 영속 Member 를 정리한다.
+     * detach 한 Member 를 초기화된 Team.members 컬렉션이 아직 들고 있으면, 그 Team 을 refresh 해서 컬렉션을 다시 읽게 한다.
+     * (refresh 는 Team 의 컬렉션을 초기화 안 된 상태로 되돌린다) refresh 한 Member 는 같은 인스턴스라서 컬렉션은 그대로 둔다. */
+    private void syncPersistenceContext(Set<Long> ids, BulkClearMode mode, boolean refreshable) {
+        if (mode == BulkClearMode.CLEAR_ALL) {
+            em.clear();
+            return;
+        }
+        List<Member> touched = managedEntities(Member.class, m -> ids.contains(m.getId()));
+        if (mode == BulkClearMode.REFRESH_MATCHING && refreshable) {
+            touched.forEach(em::refresh);
+            return;
+        }
+        touched.forEach(em::detach);
+
+        Set<Member> detached = Collections.newSetFromMap(new IdentityHashMap<>());
+        detached.addAll(touched);
+        List<Team> owners = managedEntities(Team.class, t -> Hibernate.isInitialized(t.getMembers())
+                && t.getMembers().stream().anyMatch(detached::contains));
+        owners.forEach(em::refresh);
+    }
+
+    /** 영속성 컨텍스트(1차 캐시)에 올라와 있는 엔티티 중 조건에 맞는 것만 꺼낸다. */
+    private <T> List<T> managedEntities(Class<T> type, Predicate<? super T> predicate) {
+        List<T> result = new ArrayList<>();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entry.getValue().getStatus() != Status.MANAGED || !type.isInstance(entry.getKey())) {
+                continue;
+            }
+            T entity = type.cast(entry.getKey());
+            if (predicate.test(entity)) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
 }
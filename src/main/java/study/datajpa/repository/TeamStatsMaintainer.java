@@ -0,0 +1,272 @@
+package study.datajpa.repository;
+
+import org.hibernate.bytecode.enhance.spi.LazyPropertyInitializer;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.support.HibernateEventListeners;
+import study.datajpa.support.SessionBuffers;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** team_stats(TeamStats) 증분 갱신
+ *
+ * 하이버네이트 이벤트 리스너로 Member insert/update/delete 의 이전 값, 이후 값을 받아서
+ * 팀별 (회원 수, 나이 합) 증감분을 세션(트랜잭션) 단위로 모아둔다.
+ * 커밋 직전(커밋 때의 flush 이후)에 팀마다 update 1번으로 반영한다. 롤백되면 버린다.
+ * 벌크 수정/삭제는 이벤트가 없으므로 onBulkAgePlus()/onBulkDelete() 가 같은 조건의 SQL 로 DB 안에서 바로 반영한다. (MemberBulkOperations)
+ *
+ * 리스너는 컨텍스트가 다 뜬 뒤(ContextRefreshedEvent)에 등록한다. (HibernateEventListeners 참고)
+ * datajpa.team-stats.enabled=false 이면 아무것도 하지 않는다.
+ * */
+@Component
+public class TeamStatsMaintainer implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    static final String REBUILD_DELETE_SQL = "delete from team_stats";
+    static final String REBUILD_INSERT_SQL =
+            "insert into team_stats (team_id, member_count, age_sum)" +
+            " select t.team_id, count(m.member_id), coalesce(sum(m.age), 0)" +
+            " from team t left join member m on m.team_id = t.team_id and m.deleted_at is null" +
+            " group by t.team_id";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final AtomicBoolean registered = new AtomicBoolean();
+    private final SessionBuffers<Deltas> pending = new SessionBuffers<>(Deltas::new);
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public TeamStatsMaintainer(EntityManagerFactory entityManagerFactory,
+                               @Value("${datajpa.team-stats.enabled:true}") boolean enabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void registerListeners() {
+        if (enabled && registered.compareAndSet(false, true)) { // 자식 컨텍스트의 refresh 이벤트로 두 번 등록되지 않도록
+            HibernateEventListeners.appendPostEventListeners(entityManagerFactory, this);
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            deltas(event.getSession()).add(event.getPersister(), event.getState(), 1);
+        } else if (event.getEntity() instanceof Team) {
+            deltas(event.getSession()).addTeam((Long) event.getId()); // 빈 통계 행을 같은 트랜잭션에서 만든다.
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Deltas deltas = deltas(event.getSession());
+        if (event.getOldState() == null) { // 이전 값을 모르는 경우(Session.update 등) -> 전체 재계산
+            deltas.rebuild = true;
+            return;
+        }
+        deltas.add(event.getPersister(), event.getOldState(), -1);
+        deltas.add(event.getPersister(), event.getState(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            deltas(event.getSession()).add(event.getPersister(), event.getDeletedState(), -1);
+        } else if (event.getEntity() instanceof Team) {
+            deltas(event.getSession()).deletedTeams.add((Long) event.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    /** 벌크 나이 +1 직전에 호출 : condition 에 맞는 member 행으로 팀별 나이 합 증가분을 SQL 안에서 계산해 바로 반영한다.
+     * condition 은 member 테이블 별칭 m 기준 SQL, 대상 행은 호출한 쪽이 먼저 잠가 둔다. */
+    public void onBulkAgePlus(String condition, Object... parameters) {
+        applyBulk("age_sum = age_sum + (select count(*) from member m where m.team_id = s.team_id and " + condition + ")",
+                condition, 1, parameters);
+    }
+
+    /** 벌크 삭제 직전에 호출 : 삭제될 회원 수, 나이 합을 팀별로 빼서 바로 반영한다. */
+    public void onBulkDelete(String condition, Object... parameters) {
+        applyBulk("member_count = member_count - (select count(*) from member m where m.team_id = s.team_id and " + condition + ")," +
+                " age_sum = age_sum - (select coalesce(sum(m.age), 0) from member m where m.team_id = s.team_id and " + condition + ")",
+                condition, 2, parameters);
+    }
+
+    /** update team_stats s set <assignments> where s.team_id in (대상 행의 팀). 행을 JVM 으로 읽지 않는다. */
+    private void applyBulk(String assignments, String condition, int conditionsInAssignments, Object[] parameters) {
+        if (!enabled) {
+            return;
+        }
+        String sql = "update team_stats s set " + assignments +
+                " where s.team_id in (select m.team_id from member m where " + condition + ")";
+        em.unwrap(SessionImplementor.class).doWork(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(sql)) {
+                int index = 1;
+                for (int repeat = 0; repeat <= conditionsInAssignments; repeat++) { // 조건이 나온 횟수만큼 파라미터를 반복
+                    for (Object parameter : parameters) {
+                        update.setObject(index++, parameter);
+                    }
+                }
+                update.executeUpdate();
+            }
+        });
+    }
+
+    /** member/team 테이블에서 통계를 처음부터 다시 만든다. (최초 적용, 불일치 복구) */
+    @Transactional
+    public void rebuild() {
+        em.createNativeQuery(REBUILD_DELETE_SQL).executeUpdate();
+        em.createNativeQuery(REBUILD_INSERT_SQL).executeUpdate();
+    }
+
+    /** 아직 커밋/롤백 안 된 트랜잭션의 증감분 수 (테스트용) */
+    int pendingTransactions() {
+        return pending.size();
+    }
+
+    private Deltas deltas(SessionImplementor session) {
+        return pending.get(session);
+    }
+
+    /** 트랜잭션 하나 동안 모은 팀별 증감분 */
+    private static class Deltas implements SessionBuffers.Buffer {
+
+        private final Map<Long, long[]> byTeam = new LinkedHashMap<>(); // teamId -> {회원 수, 나이 합}
+        private final Set<Long> newTeams = new LinkedHashSet<>();
+        private final Set<Long> deletedTeams = new LinkedHashSet<>();
+        private boolean rebuild;
+
+        void add(EntityPersister persister, Object[] state, int sign) {
+            Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+            Object age = state[persister.getEntityMetamodel().getPropertyIndex("age")];
+            if (team == LazyPropertyInitializer.UNFETCHED_PROPERTY || age == LazyPropertyInitializer.UNFETCHED_PROPERTY) {
+                rebuild = true;
+                return;
+            }
+            if (team != null) {
+                add(teamId(team), sign, sign * (long) (Integer) age);
+            }
+        }
+
+        void add(Long teamId, long memberCount, long ageSum) {
+            long[] delta = byTeam.computeIfAbsent(teamId, id -> new long[2]);
+            delta[0] += memberCount;
+            delta[1] += ageSum;
+        }
+
+        void addTeam(Long teamId) {
+            newTeams.add(teamId);
+            add(teamId, 0, 0);
+        }
+
+        @Override
+        public void discard() {
+            byTeam.clear();
+            newTeams.clear();
+            deletedTeams.clear();
+            rebuild = false;
+        }
+
+        /** JDBC 로 직접 반영해서 엔티티 이벤트/flush 를 다시 일으키지 않는다. */
+        @Override
+        public void beforeCommit(SessionImplementor session) {
+            session.doWork(connection -> {
+                if (rebuild) {
+                    try (PreparedStatement delete = connection.prepareStatement(REBUILD_DELETE_SQL);
+                         PreparedStatement insert = connection.prepareStatement(REBUILD_INSERT_SQL)) {
+                        delete.executeUpdate();
+                        insert.executeUpdate();
+                    }
+                    return;
+                }
+                try (PreparedStatement update = connection.prepareStatement(
+                        "update team_stats set member_count = member_count + ?, age_sum = age_sum + ? where team_id = ?");
+                     PreparedStatement insert = connection.prepareStatement(
+                             "insert into team_stats (team_id, member_count, age_sum) values (?, ?, ?)")) {
+                    for (Map.Entry<Long, long[]> entry : byTeam.entrySet()) {
+                        if (deletedTeams.contains(entry.getKey())) {
+                            continue;
+                        }
+                        long[] delta = entry.getValue();
+                        if (delta[0] == 0 && delta[1] == 0 && !newTeams.contains(entry.getKey())) {
+                            continue; // 이름만 바뀐 경우 등
+                        }
+                        update.setLong(1, delta[0]);
+                        update.setLong(2, delta[1]);
+                        update.setLong(3, entry.getKey());
+                        if (update.executeUpdate() == 0 && !insertIfAbsent(connection, insert, entry.getKey(), delta)) {
+                            update.executeUpdate(); // 다른 트랜잭션이 먼저 행을 만들었다 -> 그 행에 더한다.
+                        }
+                    }
+                }
+                try (PreparedStatement delete = connection.prepareStatement("delete from team_stats where team_id = ?")) {
+                    for (Long teamId : deletedTeams) {
+                        delete.setLong(1, teamId);
+                        delete.executeUpdate();
+                    }
+                }
+            });
+        }
+    }
+
+    /** 통계 행이 없을 때 insert. 동시에 같은 팀의 첫 행을 만든 트랜잭션이 있으면 PK 충돌 -> false.
+     * 실패한 insert 만 세이브포인트로 되돌려서 트랜잭션은 계속 쓸 수 있게 한다. */
+    private static boolean insertIfAbsent(Connection connection, PreparedStatement insert, Long teamId, long[] delta)
+            throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            insert.setLong(1, teamId);
+            insert.setLong(2, delta[0]);
+            insert.setLong(3, delta[1]);
+            insert.executeUpdate();
+            connection.releaseSavepoint(savepoint);
+            return true;
+        } catch (SQLException e) {
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) { // 23xxx : 무결성 제약 위반
+                throw e;
+            }
+            connection.rollback(savepoint);
+            return false;
+        }
+    }
+
+    private static Long teamId(Object team) {
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+}
@@ -0,0 +1,8 @@
+package study.datajpa.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import study.datajpa.entity.TeamStats;
+
+/** TeamStats 는 TeamStatsMaintainer 가 관리한다. 조회용으로만 쓴다. */
+public interface TeamStatsRepository extends JpaRepository<TeamStats, Long> {
+}
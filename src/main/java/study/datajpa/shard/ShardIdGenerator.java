@@ -0,0 +1,56 @@
+package study.datajpa.shard;
+
+/** 샤드 번호를 품은 id 생성기 (@GeneratedValue 대신 사용)
+ *
+ *  | 41bit 밀리초(EPOCH 기준) | 5bit 노드 | 7bit 샤드 | 10bit 순번 |
+ *
+ * id 만 보고 어느 샤드에 있는지 알 수 있어서 findById 는 샤드 1곳만 조회한다.
+ * 시간순으로 증가하므로 id 정렬 = 대략 생성순.
+ * */
+public class ShardIdGenerator {
+
+    static final long EPOCH = 1609459200000L; // 2021-01-01T00:00:00Z
+
+    static final int SEQUENCE_BITS = 10;
+    static final int SHARD_BITS = 7;
+    static final int NODE_BITS = 5;
+
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+    public static final int MAX_NODES = 1 << NODE_BITS;
+    private static final long SEQUENCE_MASK = (1 << SEQUENCE_BITS) - 1;
+
+    private final int node;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public ShardIdGenerator(int node) {
+        if (node < 0 || node >= MAX_NODES) {
+            throw new IllegalArgumentException("node must be 0 ~ " + (MAX_NODES - 1) + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public synchronized long nextId(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("shard must be 0 ~ " + (MAX_SHARDS - 1) + ": " + shard);
+        }
+        long now = Math.max(System.currentTimeMillis(), lastMillis); // 시계가 뒤로 가도 id 는 줄어들지 않게
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) { // 1ms 안에 순번을 다 썼으면 다음 ms 로
+                now = lastMillis + 1;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH) << (NODE_BITS + SHARD_BITS + SEQUENCE_BITS))
+                | ((long) node << (SHARD_BITS + SEQUENCE_BITS))
+                | ((long) shard << SEQUENCE_BITS)
+                | sequence;
+    }
+
+    public static int shardOf(long id) {
+        return (int) ((id >> SEQUENCE_BITS) & (MAX_SHARDS - 1));
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.shard;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/** 샤드에 저장된 회원 한 행. (샤드는 JPA 영속성 컨텍스트 밖이라 엔티티가 아닌 값 객체로 다룬다.) */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class ShardedMember {
+
+    private final long id;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+}
@@ -0,0 +1,240 @@
+package study.datajpa.shard;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/** member 테이블을 여러 DB(샤드)에 나눠 저장하는 레포지토리
+ *
+ * - 저장 : ShardingStrategy 로 샤드를 고르고, 샤드 번호를 품은 id 를 만들어 그 샤드에 insert
+ * - id 조회/삭제 : id 에서 샤드 번호를 꺼내서 샤드 1곳만 조회
+ * - username, age 조회 : 모든 샤드에 동시에 쿼리(scatter) 후 합친다(gather)
+ * - 페이징 : 샤드마다 정렬된 (offset + size) 개를 가져와서 병합 정렬 후 offset 만큼 건너뛴다.
+ *   뒤쪽 페이지일수록 샤드마다 많이 읽으므로 깊은 페이지는 피할 것.
+ *
+ * 주의 : 샤드의 member 테이블에는 deleted_at 이 없다. JPA Member 의 soft delete(@SQLDelete/@Where),
+ * MemberArchiver 아카이빙은 샤드에 적용되지 않고, deleteById 는 행을 바로 지운다(hard delete).
+ * 샤드에 soft delete 가 필요해지면 컬럼 추가와 함께 모든 조회에 deleted_at is null 조건을 넣어야 한다.
+ * */
+public class ShardedMemberRepository implements AutoCloseable {
+
+    private static final String COLUMNS = "member_id, username, age, team_id";
+    private static final RowMapper<ShardedMember> ROW_MAPPER = (rs, rowNum) -> new ShardedMember(
+            rs.getLong("member_id"),
+            rs.getString("username"),
+            rs.getInt("age"),
+            rs.getObject("team_id", Long.class));
+
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private final ShardingStrategy strategy;
+    private final ShardIdGenerator idGenerator;
+    private final AtomicLong memberSequence = new AtomicLong();
+    private final ExecutorService executor;
+
+    public ShardedMemberRepository(List<DataSource> dataSources, ShardingStrategy strategy, ShardIdGenerator idGenerator) {
+        if (dataSources.isEmpty() || dataSources.size() > ShardIdGenerator.MAX_SHARDS) {
+            throw new IllegalArgumentException("shard count must be 1 ~ " + ShardIdGenerator.MAX_SHARDS + ": " + dataSources.size());
+        }
+        dataSources.forEach(dataSource -> shards.add(new JdbcTemplate(dataSource)));
+        this.strategy = strategy;
+        this.idGenerator = idGenerator;
+        this.executor = Executors.newFixedThreadPool(dataSources.size(), runnable -> {
+            Thread thread = new Thread(runnable, "member-shard");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** 샤드마다 member 테이블 생성. 팀은 샤드 밖에 있으므로 FK 는 걸지 않는다.
+     * 이미 있는 테이블은 건드리지 않으니 로컬/테스트용으로만 쓴다. */
+    public void createSchema() {
+        shards.forEach(shard -> {
+            shard.execute("create table if not exists member (" +
+                    "member_id bigint not null primary key, username varchar(255), age integer not null, team_id bigint)");
+            shard.execute("create index if not exists idx_member_username on member (username)");
+            shard.execute("create index if not exists idx_member_age on member (age)");
+        });
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public ShardedMember save(String username, int age, Long teamId) {
+        int shard = strategy.shardFor(teamId, memberSequence.incrementAndGet(), shards.size());
+        long id = idGenerator.nextId(shard);
+        shards.get(shard).update("insert into member (" + COLUMNS + ") values (?, ?, ?, ?)", id, username, age, teamId);
+        return new ShardedMember(id, username, age, teamId);
+    }
+
+    public Optional<ShardedMember> findById(long id) {
+        List<ShardedMember> result = shardOf(id).query("select " + COLUMNS + " from member where member_id = ?", ROW_MAPPER, id);
+        return result.stream().findFirst();
+    }
+
+    public void deleteById(long id) {
+        shardOf(id).update("delete from member where member_id = ?", id);
+    }
+
+    public long count() {
+        return scatter(shard -> shard.queryForObject("select count(*) from member", Long.class))
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
+    /** 모든 샤드 조회 후 id 순으로 합친다. */
+    public List<ShardedMember> findByUsername(String username) {
+        List<List<ShardedMember>> results = scatter(shard -> shard.query(
+                "select " + COLUMNS + " from member where username = ? order by member_id", ROW_MAPPER, username));
+        return merge(results, Comparator.comparingLong(ShardedMember::getId), 0, Integer.MAX_VALUE);
+    }
+
+    /** 샤드 간 페이징 : 정렬 조건이 없으면 id 순 */
+    public Page<ShardedMember> findByAge(int age, Pageable pageable) {
+        String orderBy = orderBy(pageable.getSort());
+        Comparator<ShardedMember> comparator = comparator(pageable.getSort());
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        long limit = offset + size; // 샤드마다 이만큼 읽어야 전체에서 offset ~ offset+size 를 정확히 고를 수 있다.
+
+        List<List<ShardedMember>> results = scatter(shard -> shard.query(
+                "select " + COLUMNS + " from member where age = ? order by " + orderBy + " limit ?", ROW_MAPPER, age, limit));
+        List<ShardedMember> content = merge(results, comparator, offset, size);
+
+        long total = scatter(shard -> shard.queryForObject("select count(*) from member where age = ?", Long.class, age))
+                .stream().mapToLong(Long::longValue).sum();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private JdbcTemplate shardOf(long id) {
+        int shard = ShardIdGenerator.shardOf(id);
+        if (shard >= shards.size()) {
+            throw new IllegalArgumentException("id " + id + " belongs to unknown shard " + shard);
+        }
+        return shards.get(shard);
+    }
+
+    /** 모든 샤드에 동시에 실행하고 샤드 순서대로 결과를 모은다. */
+    private <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (JdbcTemplate shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DataAccessException) {
+                throw (DataAccessException) e.getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /** 샤드별로 정렬된 결과를 k-way 병합하면서 offset 만큼 건너뛰고 size 개를 고른다. */
+    private static List<ShardedMember> merge(List<List<ShardedMember>> sortedResults, Comparator<ShardedMember> comparator,
+                                             long offset, int size) {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>((a, b) -> comparator.compare(a.current, b.current));
+        for (List<ShardedMember> result : sortedResults) {
+            Iterator<ShardedMember> iterator = result.iterator();
+            if (iterator.hasNext()) {
+                queue.add(new Cursor(iterator));
+            }
+        }
+        List<ShardedMember> merged = new ArrayList<>();
+        long skipped = 0;
+        while (!queue.isEmpty() && merged.size() < size) {
+            Cursor cursor = queue.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(cursor.current);
+            }
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static String orderBy(Sort sort) {
+        StringBuilder sb = new StringBuilder();
+        for (Sort.Order order : sort) {
+            sb.append(column(order.getProperty())).append(order.isAscending() ? " asc" : " desc").append(", ");
+        }
+        return sb.append("member_id asc").toString(); // 샤드 간 병합 순서가 항상 같도록 id 로 마무리
+    }
+
+    private static Comparator<ShardedMember> comparator(Sort sort) {
+        Comparator<ShardedMember> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<ShardedMember> next = property(order.getProperty());
+            comparator = comparator.thenComparing(order.isAscending() ? next : next.reversed());
+        }
+        return comparator.thenComparingLong(ShardedMember::getId);
+    }
+
+    private static String column(String property) {
+        switch (property) {
+            case "id": return "member_id";
+            case "username": return "username";
+            case "age": return "age";
+            case "teamId": return "team_id";
+            default: throw new IllegalArgumentException("unsupported sort property: " + property);
+        }
+    }
+
+    /** SQL 의 null 정렬(H2 : asc 일 때 null 먼저)과 맞춘다. */
+    private static Comparator<ShardedMember> property(String property) {
+        switch (property) {
+            case "id": return Comparator.comparingLong(ShardedMember::getId);
+            case "username": return Comparator.comparing(ShardedMember::getUsername, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "age": return Comparator.comparingInt(ShardedMember::getAge);
+            case "teamId": return Comparator.comparing(ShardedMember::getTeamId, Comparator.nullsFirst(Comparator.naturalOrder()));
+            default: throw new IllegalArgumentException("unsupported sort property: " + property);
+        }
+    }
+
+    private static class Cursor {
+        private final Iterator<ShardedMember> iterator;
+        private ShardedMember current;
+
+        Cursor(Iterator<ShardedMember> iterator) {
+            this.iterator = iterator;
+            this.current = iterator.next();
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package study.datajpa.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/** 샤딩 설정. 기본 DataSource(JPA)와 별개로 샤드마다 커넥션 풀을 만든다.
+ *
+ * datajpa.sharding.enabled=true
+ * datajpa.sharding.urls=jdbc:h2:mem:shard0,jdbc:h2:mem:shard1,jdbc:h2:mem:shard2
+ * datajpa.sharding.strategy=TEAM         (TEAM | MEMBER_HASH)
+ * datajpa.sharding.node=0                (애플리케이션 인스턴스마다 다르게. id 중복 방지)
+ * datajpa.sharding.create-schema=false   (true 면 기동 시 샤드마다 create table if not exists. 로컬/테스트 전용)
+ *
+ * 운영 샤드의 스키마는 마이그레이션으로 관리한다. create-schema 는 기존 테이블과 모양이 달라도 조용히 넘어가므로 기본 꺼짐.
+ * */
+@Configuration
+@ConditionalOnProperty(name = "datajpa.sharding.enabled", havingValue = "true")
+public class ShardingConfig implements DisposableBean {
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+
+    @Bean(destroyMethod = "close")
+    public ShardedMemberRepository shardedMemberRepository(
+            @Value("${datajpa.sharding.urls}") List<String> urls,
+            @Value("${datajpa.sharding.username:sa}") String username,
+            @Value("${datajpa.sharding.password:}") String password,
+            @Value("${datajpa.sharding.strategy:TEAM}") ShardingStrategy strategy,
+            @Value("${datajpa.sharding.node:0}") int node,
+            @Value("${datajpa.sharding.create-schema:false}") boolean createSchema) {
+        List<DataSource> shards = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSources.add(dataSource);
+            shards.add(dataSource);
+        }
+        ShardedMemberRepository repository = new ShardedMemberRepository(shards, strategy, new ShardIdGenerator(node));
+        if (createSchema) {
+            repository.createSchema();
+        }
+        return repository;
+    }
+
+    @Override
+    public void destroy() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.shard;
+
+/** 새 회원을 어느 샤드에 저장할지 정한다. 저장된 뒤에는 id 에 샤드 번호가 들어있다. (ShardIdGenerator) */
+public enum ShardingStrategy {
+
+    /** team_id 기준 : 같은 팀 회원은 같은 샤드. 팀 단위 조회가 샤드 1곳에서 끝난다. 팀이 없으면 MEMBER_HASH 처럼 분산 */
+    TEAM,
+
+    /** 회원 단위 해시 분산 : 팀 크기가 제각각이어도 샤드 크기가 고르다. */
+    MEMBER_HASH;
+
+    int shardFor(Long teamId, long memberSequence, int shardCount) {
+        if (this == TEAM && teamId != null) {
+            return Math.floorMod(mix(teamId), shardCount);
+        }
+        return Math.floorMod(mix(memberSequence), shardCount);
+    }
+
+    /** 연속된 값(1, 2, 3 ...)이 한 샤드에 몰리지 않도록 비트를 섞는다. (SplitMix64) */
+    private static int mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (int) (z ^ (z >>> 31));
+    }
+}
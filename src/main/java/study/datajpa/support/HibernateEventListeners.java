@@ -0,0 +1,31 @@
+package study.datajpa.support;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEventListener;
+
+import javax.persistence.EntityManagerFactory;
+
+/** 하이버네이트 이벤트 리스너 등록
+ * EntityManagerFactory 를 unwrap 하면 백그라운드 부트스트랩(faststart 프로파일)이 끝날 때까지 기다리므로,
+ * 빈 생성 중(@PostConstruct)이 아니라 컨텍스트가 다 뜬 뒤(ContextRefreshedEvent)에 호출한다.
+ * */
+public final class HibernateEventListeners {
+
+    private HibernateEventListeners() {
+    }
+
+    /** insert/update/delete 실행 직후 이벤트 */
+    public static <L extends PostInsertEventListener & PostUpdateEventListener & PostDeleteEventListener>
+    void appendPostEventListeners(EntityManagerFactory entityManagerFactory, L listener) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+}
@@ -0,0 +1,64 @@
+package study.datajpa.support;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import javax.persistence.TransactionRequiredException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/** 세션(트랜잭션)마다 버퍼를 하나씩 만들어 두고, 커밋 직전에 반영한 뒤 트랜잭션이 끝나면 버린다.
+ * 엔티티 이벤트로 모은 변경을 같은 트랜잭션 안에서 JDBC 로 쓰는 곳(TeamStatsMaintainer, ChangeEventRecorder)이 같이 쓴다.
+ *
+ * 트랜잭션 밖에서는 커밋/롤백 콜백이 오지 않아 버퍼가 남으므로 TransactionRequiredException 을 던진다.
+ * 롤백되면 하이버네이트 5.4 는 등록된 커밋 직전 처리(BeforeTransactionCompletionProcess)를 실행하지도, 지우지도 않는다.
+ * -> 같은 세션을 다음 트랜잭션에서 다시 쓰면(open-in-view, 직접 만든 EntityManager) 그 커밋 때 실행된다.
+ *    그래서 롤백 콜백에서 버퍼를 비우고, 커밋 직전 처리는 자기 버퍼가 아직 현재 버퍼일 때만 반영한다.
+ * */
+public class SessionBuffers<B extends SessionBuffers.Buffer> {
+
+    public interface Buffer {
+
+        /** 커밋 때의 flush 가 끝난 뒤, 커밋 직전에 같은 커넥션으로 호출된다. 롤백되면 호출되지 않는다. */
+        void beforeCommit(SessionImplementor session);
+
+        /** 롤백된 뒤에 호출된다. 모아둔 것을 버린다. */
+        void discard();
+    }
+
+    private final Map<SharedSessionContractImplementor, B> buffers = new ConcurrentHashMap<>();
+    private final Supplier<B> factory;
+
+    public SessionBuffers(Supplier<B> factory) {
+        this.factory = factory;
+    }
+
+    public B get(SessionImplementor session) {
+        if (!session.isTransactionInProgress()) {
+            throw new TransactionRequiredException("no transaction is in progress for the current session");
+        }
+        return buffers.computeIfAbsent(session, s -> {
+            B buffer = factory.get();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) completing -> {
+                if (buffers.get(completing) == buffer) { // 이전에 롤백된 트랜잭션의 처리가 남아 있으면 건너뛴다.
+                    buffer.beforeCommit(completing);
+                }
+            });
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> {
+                if (!success) {
+                    buffer.discard();
+                }
+                buffers.remove(completed, buffer);
+            });
+            return buffer;
+        });
+    }
+
+    /** 아직 트랜잭션이 안 끝난 버퍼 수 */
+    public int size() {
+        return buffers.size();
+    }
+}
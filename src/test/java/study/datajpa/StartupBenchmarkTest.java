@@ -0,0 +1,61 @@
+package study.datajpa;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** 기동 시간 측정 : main() 시작 ~ 첫 번째 HTTP 요청 응답까지 (time-to-first-request)
+ * ./gradlew benchmark
+ * */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+    private static final int ROUNDS = 5;
+
+    @Test
+    void timeToFirstRequest() {
+        List<Long> eager = new ArrayList<>();
+        List<Long> fastStart = new ArrayList<>();
+
+        // 클래스 로딩 등 JVM 워밍업 영향을 줄이기 위해 번갈아 가며 측정
+        for (int i = 0; i < ROUNDS; i++) {
+            eager.add(measureMillis("test"));
+            fastStart.add(measureMillis("test", "faststart"));
+        }
+
+        report("default", eager);
+        report("faststart", fastStart);
+    }
+
+    private long measureMillis(String... profiles) {
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .profiles(profiles)
+                .properties("server.port=0")
+                .run()) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String body = new RestTemplate().getForObject("http://localhost:" + port + "/hello", String.class);
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+            assertThat(body).isEqualTo("hello");
+            return elapsed;
+        }
+    }
+
+    private void report(String name, List<Long> millis) {
+        List<Long> sorted = new ArrayList<>(millis);
+        Collections.sort(sorted);
+        System.out.println("[startup] " + name
+                + " min=" + sorted.get(0) + "ms"
+                + " median=" + sorted.get(sorted.size() / 2) + "ms"
+                + " all=" + millis);
+    }
+}
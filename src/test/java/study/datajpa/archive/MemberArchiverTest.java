@@ -0,0 +1,165 @@
+package study.datajpa.archive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberArchiveRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.support.DatabaseCleanup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** 아카이브는 배치마다 커밋하므로 테스트 메소드 단위 @Transactional 을 쓰지 않는다. */
+@SpringBootTest
+@ActiveProfiles("test")
+class MemberArchiverTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberArchiveRepository memberArchiveRepository;
+    @Autowired MemberArchiver memberArchiver;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        DatabaseCleanup.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    public void softDeleteThenArchive(){
+        // given : 3명 저장 후 2명 삭제
+        Long[] ids = transactionTemplate.execute(status -> new Long[]{
+                memberRepository.save(new Member("archive1", 10)).getId(),
+                memberRepository.save(new Member("archive2", 20)).getId(),
+                memberRepository.save(new Member("archive3", 30)).getId()});
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.deleteById(ids[0]);
+            memberRepository.deleteById(ids[1]);
+        });
+
+        // soft delete : 조회에서는 빠지지만 행은 남아 있다.
+        assertThat(memberRepository.findByUsername("archive1")).isEmpty();
+        assertThat(memberRepository.findById(ids[2])).isPresent();
+        assertThat(hotRowCount(ids[0])).isEqualTo(1);
+        assertThat(memberRepository.findMemberDtoByUsername("archive1", true)).hasSize(1);
+
+        // when : 1명씩, 1배치만 -> 중간에 멈춤
+        LocalDateTime cutoff = LocalDateTime.now().plusSeconds(1);
+        ArchiveResult first = memberArchiver.archiveDeletedBefore(cutoff, 1, 1);
+        ArchiveResult second = memberArchiver.archiveDeletedBefore(cutoff, 1, Integer.MAX_VALUE);
+
+        // then
+        assertThat(first.isCompleted()).isFalse();
+        assertThat(first.getArchivedCount()).isEqualTo(1);
+        assertThat(second.isResumed()).isTrue(); // 체크포인트부터 이어서
+        assertThat(second.isCompleted()).isTrue();
+
+        assertThat(hotRowCount(ids[0])).isEqualTo(0); // hot 테이블에서 빠짐
+        assertThat(hotRowCount(ids[1])).isEqualTo(0);
+        assertThat(hotRowCount(ids[2])).isEqualTo(1); // 살아있는 회원은 그대로
+        assertThat(memberArchiveRepository.findByUsername("archive2")).extracting("id").containsExactly(ids[1]);
+
+        // 기본 조회는 hot 테이블만, 옵션으로 아카이브 포함
+        assertThat(memberRepository.findMemberDtoByUsername("archive1", false)).isEmpty();
+        assertThat(memberRepository.findMemberDtoByUsername("archive1", true))
+                .extracting("id").containsExactly(ids[0]);
+    }
+
+    @Test
+    public void concurrentRunsShareCheckpoint() throws Exception { /** 두 노드가 동시에 시작해도 체크포인트 충돌 없이 나눠서 옮긴다. */
+        Long[] ids = transactionTemplate.execute(status -> {
+            Long[] saved = new Long[5];
+            for (int i = 0; i < saved.length; i++) {
+                saved[i] = memberRepository.save(new Member("archiveConcurrent" + i, 10)).getId();
+            }
+            return saved;
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Long id : ids) {
+                memberRepository.deleteById(id);
+            }
+        });
+
+        LocalDateTime cutoff = LocalDateTime.now().plusSeconds(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Callable<ArchiveResult> run = () -> {
+                start.await();
+                return memberArchiver.archiveDeletedBefore(cutoff, 1, Integer.MAX_VALUE);
+            };
+            Future<ArchiveResult> first = executor.submit(run);
+            Future<ArchiveResult> second = executor.submit(run);
+            start.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS).getArchivedCount()
+                    + second.get(10, TimeUnit.SECONDS).getArchivedCount()).isEqualTo(ids.length);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member_archive", Integer.class)).isEqualTo(ids.length);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from archive_checkpoint", Integer.class)).isZero();
+    }
+
+    @Test
+    public void deleteTeamAfterMembersDeleted(){
+        // given : 팀의 회원을 모두 삭제 (soft delete -> 행은 남아 있다)
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team team = teamRepository.save(new Team("archiveTeam"));
+            return new Long[]{team.getId(),
+                    memberRepository.save(new Member("archiveTeamMember1", 10, team)).getId(),
+                    memberRepository.save(new Member("archiveTeamMember2", 20, team)).getId()};
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.deleteById(ids[1]);
+            memberRepository.deleteById(ids[2]);
+        });
+
+        // when : 아카이브 전에 팀 삭제 -> FK 위반 없이 지워진다.
+        transactionTemplate.executeWithoutResult(status -> teamRepository.deleteById(ids[0]));
+        memberArchiver.archiveDeletedBefore(LocalDateTime.now().plusSeconds(1));
+
+        // then : 아카이브에는 원래 팀 id 가 남는다.
+        assertThat(teamRepository.findById(ids[0])).isEmpty();
+        assertThat(memberArchiveRepository.findByUsername("archiveTeamMember1"))
+                .extracting("teamId").containsExactly(ids[0]);
+    }
+
+    @Test
+    public void bulkUpdateSkipsSoftDeletedMembers(){
+        Long[] ids = transactionTemplate.execute(status -> new Long[]{
+                memberRepository.save(new Member("archiveBulk1", 70)).getId(),
+                memberRepository.save(new Member("archiveBulk2", 70)).getId()});
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteById(ids[0]));
+
+        int count = memberRepository.bulkAgePlus(70);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(age(ids[0])).isEqualTo(70); // 삭제된 회원은 그대로
+        assertThat(age(ids[1])).isEqualTo(71);
+    }
+
+    private int age(Long memberId) {
+        return jdbcTemplate.queryForObject("select age from member where member_id = ?", Integer.class, memberId);
+    }
+
+    private int hotRowCount(Long memberId) {
+        return jdbcTemplate.queryForObject("select count(*) from member where member_id = ?", Integer.class, memberId);
+    }
+}
@@ -0,0 +1,101 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** 한 프로세스 안에서 LoopbackInvalidationBus 로 노드 2개(A, B)를 흉내낸다. */
+class CacheInvalidatorTest {
+
+    LoopbackInvalidationBus.Hub hub = new LoopbackInvalidationBus.Hub();
+
+    MemberUsernameCache cacheA = newCache();
+    MemberUsernameCache cacheB = newCache();
+    CacheInvalidator nodeA = new CacheInvalidator(new LoopbackInvalidationBus(hub), Collections.singletonList(cacheA), 100);
+    CacheInvalidator nodeB = new CacheInvalidator(new LoopbackInvalidationBus(hub), Collections.singletonList(cacheB), 100);
+
+    List<InvalidationMessage> received = new ArrayList<>(); // 노드 C 가 받은 메시지
+    {
+        new LoopbackInvalidationBus(hub).subscribe(received::add);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void evictOnOtherNode(){
+        cacheA.put("member1", Arrays.asList(1L), cacheA.generation());
+        cacheB.put("member1", Arrays.asList(1L), cacheB.generation());
+
+        nodeA.evict(CacheRegions.MEMBER, 1L); // 트랜잭션 밖 : 바로 전파
+
+        assertThat(cacheA.get("member1")).isNull();
+        assertThat(cacheB.get("member1")).isNull();
+    }
+
+    @Test
+    public void batchedAfterCommit(){
+        cacheB.put("member1", Arrays.asList(1L), cacheB.generation());
+        TransactionSynchronizationManager.initSynchronization();
+
+        nodeA.evict(CacheRegions.MEMBER, 1L);
+        nodeA.evict(CacheRegions.MEMBER, 1L);
+        nodeA.evict(CacheRegions.MEMBER_USERNAME, "member2");
+
+        assertThat(received).isEmpty(); // 커밋 전에는 안 보낸다.
+        assertThat(cacheB.get("member1")).containsExactly(1L);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(received).hasSize(1); // 트랜잭션 1개 = 메시지 1개, 중복 key 제거
+        assertThat(received.get(0).getKeys().get(CacheRegions.MEMBER)).containsExactly(1L);
+        assertThat(cacheB.get("member1")).isNull();
+    }
+
+    @Test
+    public void notPublishedOnRollback(){
+        TransactionSynchronizationManager.initSynchronization();
+
+        nodeA.evict(CacheRegions.MEMBER, 1L);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    public void manyKeysBecomeRegionEviction(){ // 벌크 수정으로 key 가 많으면 영역 전체 무효화 1건
+        TransactionSynchronizationManager.initSynchronization();
+
+        for (long id = 0; id < 1_000; id++) {
+            nodeA.evict(CacheRegions.MEMBER, id);
+        }
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0).getRegions()).containsExactly(CacheRegions.MEMBER);
+        assertThat(received.get(0).getKeys()).isEmpty();
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static MemberUsernameCache newCache() {
+        return new MemberUsernameCache(100, Duration.ofMinutes(10), Duration.ofSeconds(5), System::nanoTime);
+    }
+}
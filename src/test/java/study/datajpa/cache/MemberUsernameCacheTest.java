@@ -0,0 +1,75 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MemberUsernameCacheTest {
+
+    AtomicLong now = new AtomicLong();
+    MemberUsernameCache cache = new MemberUsernameCache(100, Duration.ofMinutes(10), Duration.ofSeconds(5), now::get);
+
+    @Test
+    public void negativeCacheExpiresEarlier(){
+        cache.put("member1", Arrays.asList(1L), cache.generation());
+        cache.put("nobody", Collections.emptyList(), cache.generation());
+
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        assertThat(cache.get("member1")).containsExactly(1L);
+        assertThat(cache.get("nobody")).isNull(); // 없는 username 은 5초만 캐시
+    }
+
+    @Test
+    public void evictById(){ // setUsername 으로 이름이 바뀌면 새 이름을 모르므로 id 로 지운다.
+        cache.put("member1", Arrays.asList(1L, 2L), cache.generation());
+
+        cache.evictId(2L);
+
+        assertThat(cache.get("member1")).isNull();
+    }
+
+    @Test
+    public void putAfterInvalidationIsIgnored(){
+        long generation = cache.generation(); // DB 조회 시작
+        cache.evictUsername("member1");       // 조회 도중 다른 트랜잭션이 수정
+        cache.put("member1", Arrays.asList(1L), generation);
+
+        assertThat(cache.get("member1")).isNull();
+    }
+
+    @Test
+    public void bounded(){
+        for (long i = 0; i < 1_000; i++) {
+            cache.put("member" + i, Arrays.asList(i), cache.generation());
+        }
+
+        assertThat(cache.stats().getSize()).isLessThanOrEqualTo(100);
+        assertThat(cache.stats().getEvictions()).isPositive();
+    }
+
+    @Test
+    public void hitRate(){
+        cache.put("member1", Arrays.asList(1L), cache.generation());
+        cache.put("nobody", Collections.emptyList(), cache.generation());
+
+        cache.get("member1");
+        cache.recordHit(false); // 1차 캐시에 있었음
+        cache.get("member1");
+        cache.recordHit(true);  // 엔티티를 읽느라 SQL 이 나감 -> 적중률에 안 넣는다.
+        cache.get("nobody");
+        cache.get("member2");
+
+        CacheStats stats = cache.stats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getLoadingHits()).isEqualTo(1);
+        assertThat(stats.getNegativeHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getHitRate()).isEqualTo(2.0 / 4);
+    }
+}
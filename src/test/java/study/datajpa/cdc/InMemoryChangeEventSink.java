@@ -0,0 +1,23 @@
+package study.datajpa.cdc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** 같은 JVM 안에서 받아보는 싱크. 테스트 전용 (받은 이벤트를 계속 들고 있으므로 운영에 쓰지 않는다.) */
+public class InMemoryChangeEventSink implements ChangeEventSink {
+
+    private final List<ChangeEvent> events = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<ChangeEvent> events) {
+        this.events.addAll(events);
+    }
+
+    public synchronized List<ChangeEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
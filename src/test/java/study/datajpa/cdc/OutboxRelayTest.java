@@ -0,0 +1,139 @@
+package study.datajpa.cdc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.BulkClearMode;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.support.DatabaseCleanup;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** outbox 는 커밋될 때 쓰이므로 테스트 메소드 단위 @Transactional 을 쓰지 않는다.
+ * 스케줄러(datajpa.cdc.relay.enabled)는 끄고, 메모리 싱크를 쓰는 relay 를 직접 등록해서 부른다. */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @TestConfiguration
+    static class RelayConfig {
+
+        @Bean
+        InMemoryChangeEventSink inMemoryChangeEventSink() {
+            return new InMemoryChangeEventSink();
+        }
+
+        @Bean
+        OutboxRelay outboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                InMemoryChangeEventSink sink) {
+            return new OutboxRelay(jdbcTemplate, transactionTemplate, sink, 100);
+        }
+    }
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired OutboxRelay outboxRelay;
+    @Autowired InMemoryChangeEventSink sink;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        DatabaseCleanup.deleteAll(jdbcTemplate);
+        sink.clear();
+    }
+
+    @Test
+    public void changesAreRelayedInOrder(){
+        // given : 저장 -> 수정 -> 삭제를 각각 다른 트랜잭션에서
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team team = teamRepository.save(new Team("cdcTeam"));
+            Member member = memberRepository.save(new Member("cdc1", 10, team));
+            return new Long[]{team.getId(), member.getId()};
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(ids[1]).get().setAge(11));
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteById(ids[1]));
+        transactionTemplate.executeWithoutResult(status -> { // 롤백된 변경은 남지 않는다.
+            memberRepository.saveAndFlush(new Member("cdcRollback", 10));
+            status.setRollbackOnly();
+        });
+
+        // when
+        outboxRelay.relayAll();
+
+        // then
+        List<ChangeEvent> memberEvents = eventsOf("Member", ids[1]);
+        assertThat(memberEvents).extracting("eventType")
+                .containsExactly(ChangeEvent.INSERT, ChangeEvent.UPDATE, ChangeEvent.DELETE);
+        assertThat(memberEvents.get(1).getPayload())
+                .contains("\"age\":11")
+                .contains("\"teamId\":" + ids[0]);
+        assertThat(eventsOf("Team", ids[0])).extracting("eventType").containsExactly(ChangeEvent.INSERT);
+        assertThat(sink.getEvents()).extracting("payload").noneMatch(p -> ((String) p).contains("cdcRollback"));
+        assertThat(unpublishedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void bulkUpdateIsRecorded(){ /** 벌크 연산도 바뀐 행마다 aggregateId 가 있는 이벤트를 남긴다. */
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team team = teamRepository.save(new Team("cdcBulkTeam"));
+            Member member = memberRepository.save(new Member("cdcBulk", 200, team));
+            memberRepository.save(new Member("cdcBulkYoung", 10, team));
+            return new Long[]{team.getId(), member.getId()};
+        });
+
+        int count = memberRepository.bulkAgePlus(200);
+        transactionTemplate.execute(status -> memberRepository.bulkDelete(200, BulkClearMode.CLEAR_ALL));
+        outboxRelay.relayAll();
+
+        assertThat(count).isEqualTo(1);
+        List<ChangeEvent> memberEvents = eventsOf("Member", ids[1]);
+        assertThat(memberEvents).extracting("eventType")
+                .containsExactly(ChangeEvent.INSERT, ChangeEvent.BULK_UPDATE, ChangeEvent.DELETE);
+        assertThat(memberEvents.get(1).getPayload()).isEqualTo(
+                "{\"operation\":\"bulkAgePlus\",\"id\":" + ids[1] + ",\"username\":\"cdcBulk\",\"age\":201,\"teamId\":" + ids[0] + "}");
+        assertThat(memberEvents.get(2).getPayload()).contains("\"operation\":\"bulkDelete\"");
+        assertThat(sink.getEvents()).extracting("aggregateId").doesNotContainNull();
+    }
+
+    @Test
+    public void failedSinkIsRetried(){
+        // given
+        Long id = transactionTemplate.execute(status -> memberRepository.save(new Member("cdcRetry", 10)).getId());
+        OutboxRelay failing = new OutboxRelay(jdbcTemplate, transactionTemplate, events -> {
+            throw new IllegalStateException("sink down");
+        }, 100);
+
+        // when : 싱크 실패 -> 전달 완료 처리 안 됨
+        assertThatThrownBy(failing::relayOnce).isInstanceOf(IllegalStateException.class);
+        assertThat(unpublishedCount()).isGreaterThan(0);
+
+        // then : 다음 relay 에서 다시 나간다.
+        outboxRelay.relayAll();
+        assertThat(eventsOf("Member", id)).extracting("eventType").containsExactly(ChangeEvent.INSERT);
+        assertThat(unpublishedCount()).isEqualTo(0);
+    }
+
+    private List<ChangeEvent> eventsOf(String aggregateType, Long aggregateId) {
+        return sink.getEvents().stream()
+                .filter(event -> aggregateType.equals(event.getAggregateType()) && aggregateId.equals(event.getAggregateId()))
+                .collect(Collectors.toList());
+    }
+
+    private int unpublishedCount() {
+        return jdbcTemplate.queryForObject("select count(*) from outbox_event where published_at is null", Integer.class);
+    }
+}
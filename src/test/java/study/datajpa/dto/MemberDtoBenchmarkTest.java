@@ -0,0 +1,93 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.support.AllocationBenchmark;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/** DTO 조회/직렬화의 행당 할당량 측정 (스레드 할당 바이트 / 행 수)
+ * - 조회 : JPQL 생성자 표현식(findMemberDto) vs JDBC + MemberDtoMapper.ROW_MAPPER
+ * - 직렬화 : 빈 프로퍼티 탐색(기본 ObjectMapper) vs @JsonComponent vs MemberDtoJsonWriter
+ * ./gradlew benchmark
+ * */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional // 측정용 데이터는 롤백
+class MemberDtoBenchmarkTest {
+
+    private static final int ROWS = 50_000;
+    private static final int TEAM_COUNT = 100;
+    private static final int ROUNDS = 5;
+
+    @PersistenceContext EntityManager em;
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired MemberDtoJsonWriter memberDtoJsonWriter;
+
+    @Test
+    void allocationPerRow() throws Exception {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teams.add(team);
+        }
+        for (int i = 0; i < ROWS; i++) {
+            em.persist(new Member("member" + i, i % 100, teams.get(i % TEAM_COUNT)));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+
+        // 조회
+        report("query  jpql constructor", () -> {
+            List<MemberDto> result = memberRepository.findMemberDto();
+            em.clear();
+            return result.size();
+        });
+        report("query  jdbc row mapper", () -> jdbcTemplate.query(
+                "select m.member_id, m.username, t.name from member m join team t on t.team_id = m.team_id" +
+                " where m.deleted_at is null", MemberDtoMapper.ROW_MAPPER).size());
+
+        // 직렬화 (같은 목록)
+        List<MemberDto> members = memberRepository.findMemberDto();
+        em.clear();
+        ObjectMapper beanIntrospection = new ObjectMapper(); // @JsonComponent 가 없는 기본 매퍼
+        report("json   bean introspection", () -> {
+            beanIntrospection.writeValue(OutputStream.nullOutputStream(), members);
+            return members.size();
+        });
+        report("json   @JsonComponent", () -> {
+            objectMapper.writeValue(OutputStream.nullOutputStream(), members);
+            return members.size();
+        });
+        report("json   streaming writer", () -> {
+            memberDtoJsonWriter.write(members, OutputStream.nullOutputStream());
+            return members.size();
+        });
+    }
+
+    private static void report(String name, Callable<Integer> task) throws Exception {
+        AllocationBenchmark.report("dto", name, ROUNDS, task);
+    }
+}
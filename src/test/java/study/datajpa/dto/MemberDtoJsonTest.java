@@ -0,0 +1,48 @@
+package study.datajpa.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@JsonTest // ObjectMapper + @JsonComponent 만 올린다.
+@ActiveProfiles("test")
+class MemberDtoJsonTest {
+
+    @Autowired ObjectMapper objectMapper;
+
+    @Test
+    public void serializer() throws Exception {
+        String json = objectMapper.writeValueAsString(new MemberDto(1L, "member1", null));
+
+        assertThat(json).isEqualTo("{\"id\":1,\"username\":\"member1\",\"teamName\":null}");
+    }
+
+    @Test
+    public void streamingWriterMatchesObjectMapper() throws Exception {
+        List<MemberDto> members = Arrays.asList(
+                new MemberDto(1L, "member1", "teamA"),
+                new MemberDto(2L, "멤버\"2", "teamB"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new MemberDtoJsonWriter(objectMapper).write(members, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(members));
+    }
+
+    @Test
+    public void mapper() {
+        MemberDto fromNative = MemberDtoMapper.fromRow(new Object[]{BigInteger.valueOf(3), "member3", "teamA"});
+
+        assertThat(fromNative).isEqualTo(new MemberDto(3L, "member3", "teamA")); // 값 비교 (@EqualsAndHashCode)
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.entity;
+
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+/** flush 비용 측정 : 영속성 컨텍스트에 엔티티가 많이 올라와 있을 때 변경감지(더티체킹) 비용
+ * 바이트코드 향상(enableDirtyTracking)이 적용되면, 스냅샷 비교 대신 엔티티가 기록한 변경 필드만 본다.
+ * ./gradlew benchmark : 향상 안 한 엔티티(flushBenchmarkBaseline, enhanced=false)로 한 번,
+ *                      향상된 엔티티(enhanced=true)로 한 번 돌아서 두 줄을 비교한다.
+ * */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional // 측정용 데이터는 롤백
+class FlushBenchmarkTest {
+
+    private static final int MEMBER_COUNT = 20_000;
+    private static final int TEAM_COUNT = 100;
+    private static final int ROUNDS = 20;
+    private static final int CHANGES_PER_ROUND = 100;
+
+    @PersistenceContext EntityManager em;
+
+    @Test
+    void flushWithManyManagedEntities() {
+        List<Member> members = new ArrayList<>();
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teams.add(team);
+        }
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            Member member = new Member("member" + i, i % 100, teams.get(i % TEAM_COUNT));
+            em.persist(member);
+            members.add(member);
+        }
+        em.flush(); // insert 는 측정에서 제외. 이제 영속 엔티티 MEMBER_COUNT + TEAM_COUNT 개.
+
+        long noChangeNanos = 0;
+        long changeNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            em.flush(); // 변경 없음
+            noChangeNanos += System.nanoTime() - start;
+
+            for (int i = 0; i < CHANGES_PER_ROUND; i++) {
+                Member member = members.get((round * CHANGES_PER_ROUND + i) % MEMBER_COUNT);
+                member.setAge(member.getAge() + 1);
+            }
+            start = System.nanoTime();
+            em.flush(); // CHANGES_PER_ROUND 개 update
+            changeNanos += System.nanoTime() - start;
+        }
+
+        System.out.println("[flush] enhanced=" + (members.get(0) instanceof SelfDirtinessTracker)
+                + " managed=" + (MEMBER_COUNT + TEAM_COUNT)
+                + " noChange avg=" + noChangeNanos / ROUNDS / 1_000 + "us"
+                + " " + CHANGES_PER_ROUND + "changes avg=" + changeNanos / ROUNDS / 1_000 + "us");
+    }
+}
@@ -1,21 +1,53 @@
 package study.datajpa.entity;
 
+import org.hibernate.engine.spi.SelfDirtinessTracker;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.transaction.AfterTransaction;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.support.DatabaseCleanup;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.*;
+
 @SpringBootTest
+@ActiveProfiles("test")
 @Transactional
 @Rollback(value = false)
 public class MemberTest {
 
     @PersistenceContext
     EntityManager em;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    /** 테스트 데이터를 커밋하므로(@Rollback(false)) 커밋이 끝난 뒤에 비운다. (@AfterEach 는 트랜잭션 안에서 돈다.) */
+    @AfterTransaction
+    void cleanUp() {
+        DatabaseCleanup.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    public void changeTeamKeepsBothSides(){ /** 바이트코드 향상 여부와 관계없이 Team.members 가 한 번씩만 맞춰진다. */
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Member member = new Member("member1", 10, teamA);
+
+        assertThat(teamA.getMembers()).containsExactly(member);
+
+        member.changeTeam(teamB);
+        assertThat(teamA.getMembers()).isEmpty();
+        assertThat(teamB.getMembers()).containsExactly(member);
+
+        member.changeTeam(teamB); // 같은 팀으로 다시 바꿔도 중복으로 들어가지 않는다.
+        assertThat(teamB.getMembers()).containsExactly(member);
+    }
 
     @Test
     public void testEntity(){
@@ -46,4 +78,21 @@ public class MemberTest {
             System.out.println("-> member.getTeam() = " + member1.getTeam());
         }
     }
+
+    @Test
+    public void bytecodeEnhancement(){ /** 빌드 시점 바이트코드 향상 확인 (build.gradle hibernate.enhance) */
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Member member = new Member("member1", 10, teamA);
+
+        // 변경 필드를 엔티티가 직접 추적한다.
+        assertThat(member).isInstanceOf(SelfDirtinessTracker.class);
+
+        // 연관관계 반대편(Team.members)이 자동으로 맞춰진다.
+        assertThat(teamA.getMembers()).containsExactly(member);
+
+        member.changeTeam(teamB);
+        assertThat(teamA.getMembers()).isEmpty();
+        assertThat(teamB.getMembers()).containsExactly(member);
+    }
 }
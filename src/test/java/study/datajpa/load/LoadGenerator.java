@@ -0,0 +1,77 @@
+package study.datajpa.load;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+/** 열린 모델(open model) 부하 생성기
+ *
+ * 요청마다 "예정된 시작 시각"을 목표 처리량으로 미리 정해두고, 지연시간은 응답 시각 - 예정 시각으로 잰다.
+ * 서버가 느려져서 워커가 밀리면 대기열에서 기다린 시간까지 지연시간에 들어간다.
+ * (응답을 기다렸다가 다음 요청을 보내면 느린 구간의 요청 수가 줄어서 지연시간이 실제보다 좋게 나온다 = coordinated omission)
+ *
+ * 요청마다 seed 에서 갈라낸 SplittableRandom 을 넘긴다. 같은 seed 면 호출 순서뿐 아니라 파라미터도 같다.
+ * 끝날 때 워커가 시간 안에 멈추지 않으면 기록 중인 값이 빠질 수 있으므로 리포트를 미완료로 표시한다.
+ * */
+public class LoadGenerator {
+
+    private final LoadProfile profile;
+
+    public LoadGenerator(LoadProfile profile) {
+        this.profile = profile;
+    }
+
+    public LoadReport run(BiConsumer<LoadOperation, SplittableRandom> runner) throws InterruptedException {
+        LoadReport report = new LoadReport();
+        SplittableRandom random = new SplittableRandom(profile.getSeed());
+        ExecutorService workers = Executors.newFixedThreadPool(profile.getThreads());
+
+        long start = System.nanoTime();
+        long totalNanos = profile.totalDurationNanos();
+        long intended = start;
+        try {
+            while (intended - start < totalNanos) {
+                double rate = profile.rateAt(intended - start);
+                if (rate <= 0) { // 0 rps 구간 : 1ms 씩 건너뛴다.
+                    intended += TimeUnit.MILLISECONDS.toNanos(1);
+                    continue;
+                }
+                waitUntil(intended);
+
+                LoadOperation op = profile.pick(random);
+                SplittableRandom requestRandom = random.split(); // 스케줄 스레드에서 갈라야 순서가 고정된다.
+                long intendedStart = intended;
+                workers.execute(() -> {
+                    boolean success = false;
+                    try {
+                        runner.accept(op, requestRandom);
+                        success = true;
+                    } catch (RuntimeException e) {
+                        // 실패도 지연시간에 포함하고 에러 수만 따로 센다.
+                    } finally {
+                        report.record(op, System.nanoTime() - intendedStart, success);
+                    }
+                });
+                intended += (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+            }
+        } finally {
+            workers.shutdown();
+        }
+        boolean terminated = workers.awaitTermination(1, TimeUnit.MINUTES);
+        if (!terminated) {
+            workers.shutdownNow();
+        }
+        report.finish(System.nanoTime() - start, terminated);
+        return report;
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.load;
+
+import java.util.Arrays;
+
+/** 부하 테스트에서 섞어서 호출할 레포지토리 기능 */
+public enum LoadOperation {
+
+    FIND_BY_USERNAME("findByUsername"),
+    FIND_BY_AGE_PAGE("findByAge"),
+    FIND_MEMBER_DTO("findMemberDto"),
+    SAVE("save"),
+    BULK_AGE_PLUS("bulkAgePlus"),
+    FIND_LOCK_BY_USERNAME("findLockByUsername");
+
+    private final String key;
+
+    LoadOperation(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /** -Dload.mix 에 쓰는 이름(findByUsername ...)으로 찾는다. */
+    public static LoadOperation of(String key) {
+        return Arrays.stream(values())
+                .filter(op -> op.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("unknown load operation: " + key));
+    }
+}
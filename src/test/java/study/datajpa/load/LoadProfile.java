@@ -0,0 +1,135 @@
+package study.datajpa.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/** 부하 프로파일 : 기능별 호출 비율(mix) + 구간별 목표 처리량(stage) + 워커 스레드 수
+ *
+ * -Dload.mix=findByUsername:50,findByAge:15,findMemberDto:5,save:20,bulkAgePlus:2,findLockByUsername:8
+ * -Dload.stages=10s:0-200,30s:200,10s:200-500  (구간길이:시작rps-끝rps, 끝rps 생략하면 일정)
+ * -Dload.threads=16
+ * -Dload.seed=42                                 (같은 seed 면 같은 호출 순서, 같은 파라미터)
+ * */
+public class LoadProfile {
+
+    static final String DEFAULT_MIX = "findByUsername:50,findByAge:15,findMemberDto:5,save:20,bulkAgePlus:2,findLockByUsername:8";
+    static final String DEFAULT_STAGES = "5s:10-200,15s:200";
+    static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final Map<LoadOperation, Integer> mix;
+    private final int totalWeight;
+    private final List<Stage> stages;
+    private final int threads;
+    private final long seed;
+
+    public LoadProfile(Map<LoadOperation, Integer> mix, List<Stage> stages, int threads, long seed) {
+        this.mix = new EnumMap<>(mix);
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+        this.threads = threads;
+        this.seed = seed;
+        if (totalWeight <= 0 || stages.isEmpty() || threads <= 0) {
+            throw new IllegalArgumentException("invalid load profile: mix=" + mix + " stages=" + stages + " threads=" + threads);
+        }
+    }
+
+    public static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                parseMix(System.getProperty("load.mix", DEFAULT_MIX)),
+                parseStages(System.getProperty("load.stages", DEFAULT_STAGES)),
+                threadsFromSystemProperties(),
+                Long.getLong("load.seed", 42L));
+    }
+
+    /** -Dload.threads (기본 : 코어 수 * 2). 커넥션 풀 크기도 이 값으로 맞춘다. */
+    public static int threadsFromSystemProperties() {
+        return Integer.getInteger("load.threads", DEFAULT_THREADS);
+    }
+
+    static Map<LoadOperation, Integer> parseMix(String value) {
+        Map<LoadOperation, Integer> mix = new EnumMap<>(LoadOperation.class);
+        for (String item : value.split(",")) {
+            String[] keyWeight = item.trim().split(":");
+            mix.put(LoadOperation.of(keyWeight[0]), Integer.parseInt(keyWeight[1]));
+        }
+        return mix;
+    }
+
+    static List<Stage> parseStages(String value) {
+        List<Stage> stages = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String[] durationRate = item.trim().split(":");
+            Duration duration = Duration.parse("PT" + durationRate[0].toUpperCase());
+            String[] rates = durationRate[1].split("-");
+            double from = Double.parseDouble(rates[0]);
+            double to = rates.length > 1 ? Double.parseDouble(rates[1]) : from;
+            stages.add(new Stage(duration, from, to));
+        }
+        return stages;
+    }
+
+    /** 비율에 맞춰 다음에 호출할 기능을 고른다. */
+    public LoadOperation pick(SplittableRandom random) {
+        int r = random.nextInt(totalWeight);
+        for (Map.Entry<LoadOperation, Integer> entry : mix.entrySet()) {
+            r -= entry.getValue();
+            if (r < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    /** 시작 후 elapsedNanos 시점의 목표 처리량(초당 요청 수). 구간 안에서는 선형으로 올리고 내린다. */
+    public double rateAt(long elapsedNanos) {
+        long stageStart = 0;
+        for (Stage stage : stages) {
+            long stageEnd = stageStart + stage.durationNanos;
+            if (elapsedNanos < stageEnd) {
+                double progress = (double) (elapsedNanos - stageStart) / stage.durationNanos;
+                return stage.fromRate + (stage.toRate - stage.fromRate) * progress;
+            }
+            stageStart = stageEnd;
+        }
+        return 0;
+    }
+
+    public long totalDurationNanos() {
+        return stages.stream().mapToLong(stage -> stage.durationNanos).sum();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadProfile(mix=" + mix + ", stages=" + stages + ", threads=" + threads + ", seed=" + seed + ")";
+    }
+
+    public static class Stage {
+        private final long durationNanos;
+        private final double fromRate;
+        private final double toRate;
+
+        public Stage(Duration duration, double fromRate, double toRate) {
+            this.durationNanos = duration.toNanos();
+            this.fromRate = fromRate;
+            this.toRate = toRate;
+        }
+
+        @Override
+        public String toString() {
+            return Duration.ofNanos(durationNanos).getSeconds() + "s:" + fromRate + "-" + toRate;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package study.datajpa.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** 기능별 / 전체 지연시간 히스토그램과 처리량 */
+public class LoadReport {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<LoadOperation, Histogram> histograms = new EnumMap<>(LoadOperation.class);
+    private final Map<LoadOperation, LongAdder> errors = new EnumMap<>(LoadOperation.class);
+    private final Histogram total = newHistogram();
+    private long elapsedNanos;
+    private boolean complete;
+
+    public LoadReport() {
+        for (LoadOperation op : LoadOperation.values()) {
+            histograms.put(op, newHistogram());
+            errors.put(op, new LongAdder());
+        }
+    }
+
+    private static Histogram newHistogram() {
+        return new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    }
+
+    /** latencyNanos : 예정된 시작 시각부터 응답까지 (대기열에서 기다린 시간 포함) */
+    public void record(LoadOperation op, long latencyNanos, boolean success) {
+        long value = Math.min(Math.max(latencyNanos, 0), HIGHEST_TRACKABLE_NANOS);
+        histograms.get(op).recordValue(value);
+        total.recordValue(value);
+        if (!success) {
+            errors.get(op).increment();
+        }
+    }
+
+    /** complete = false : 워커가 시간 안에 끝나지 않아 일부 기록이 빠졌을 수 있다. */
+    void finish(long elapsedNanos, boolean complete) {
+        this.elapsedNanos = elapsedNanos;
+        this.complete = complete;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public Histogram getHistogram(LoadOperation op) {
+        return histograms.get(op);
+    }
+
+    public Histogram getTotal() {
+        return total;
+    }
+
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-20s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "ops/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)"));
+        for (LoadOperation op : LoadOperation.values()) {
+            appendRow(sb, op.getKey(), histograms.get(op), errors.get(op).sum());
+        }
+        appendRow(sb, "total", total, getErrorCount());
+        if (!complete) {
+            sb.append("INCOMPLETE : workers did not terminate in time, some requests may be missing").append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private void appendRow(StringBuilder sb, String name, Histogram histogram, long errorCount) {
+        double seconds = elapsedNanos / 1e9;
+        sb.append(String.format("%-20s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name,
+                histogram.getTotalCount(),
+                errorCount,
+                seconds > 0 ? histogram.getTotalCount() / seconds : 0,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,116 @@
+package study.datajpa.load;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.BulkClearMode;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.support.DatabaseCleanup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** 실제 스프링부트 애플리케이션(메모리 H2)에 운영 트래픽과 비슷한 호출 비율로 부하를 준다.
+ * ./gradlew loadTest -Dload.stages=10s:0-500,30s:500 -Dload.threads=32
+ * 옵션은 LoadProfile 참고. -Dload.members : 미리 넣어둘 회원 수
+ * */
+@Tag("load")
+@SpringBootTest(properties = {
+        "logging.level.org.hibernate.SQL=warn", // 쿼리 로그 출력 비용이 측정값을 덮지 않도록
+        "decorator.datasource.p6spy.enable-logging=false"
+})
+@ActiveProfiles("test")
+class MemberLoadTest {
+
+    private static final int MEMBER_COUNT = Integer.getInteger("load.members", 1_000);
+    private static final int TEAM_COUNT = 10;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** 워커 수만큼 커넥션을 준다. (LoadProfile 과 같은 기본값) */
+    @DynamicPropertySource
+    static void poolSize(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.hikari.maximum-pool-size", LoadProfile::threadsFromSystemProperties);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        DatabaseCleanup.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    void mixedTraffic() throws InterruptedException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Long> teamIds = transactionTemplate.execute(status -> seed());
+
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        LoadReport report = new LoadGenerator(profile).run((op, random) ->
+                transactionTemplate.executeWithoutResult(status -> execute(op, random, teamIds)));
+
+        System.out.println("[load] " + profile);
+        System.out.println(report.format());
+        assertThat(report.getTotal().getTotalCount()).isPositive();
+        assertThat(report.isComplete()).as("workers terminated before the report was taken").isTrue();
+    }
+
+    private List<Long> seed() {
+        List<Long> teamIds = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teamIds.add(teamRepository.save(new Team("loadTeam" + i)).getId());
+        }
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            Team team = teamRepository.getById(teamIds.get(i % TEAM_COUNT));
+            memberRepository.save(new Member("loadMember" + i, i % 100, team));
+        }
+        return teamIds;
+    }
+
+    private void execute(LoadOperation op, SplittableRandom random, List<Long> teamIds) {
+        switch (op) {
+            case FIND_BY_USERNAME:
+                memberRepository.findByUsername(randomUsername(random));
+                break;
+            case FIND_BY_AGE_PAGE:
+                memberRepository.findByAge(random.nextInt(100), PageRequest.of(random.nextInt(5), 10));
+                break;
+            case FIND_MEMBER_DTO:
+                memberRepository.findMemberDto();
+                break;
+            case SAVE:
+                Team team = teamRepository.getById(teamIds.get(random.nextInt(teamIds.size())));
+                memberRepository.save(new Member("loadNew" + sequence.incrementAndGet(), random.nextInt(100), team));
+                break;
+            case BULK_AGE_PLUS:
+                memberRepository.bulkAgePlus(90 + random.nextInt(10), BulkClearMode.EVICT_MATCHING);
+                break;
+            case FIND_LOCK_BY_USERNAME:
+                memberRepository.findLockByUsername(randomUsername(random));
+                break;
+        }
+    }
+
+    private static String randomUsername(SplittableRandom random) {
+        return "loadMember" + random.nextInt(MEMBER_COUNT);
+    }
+}
@@ -3,15 +3,20 @@ package study.datajpa.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.transaction.AfterTransaction;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
+import study.datajpa.support.DatabaseCleanup;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest // JUnit5 부터는 @RunWith 애노테이션 없어도 junit 동작함
+@ActiveProfiles("test")
 @Transactional // JPA의 모든 데이터변경으니 트랜젝션 안에서 이루어진다. @Test가 끝나면, 롤백한다.
 @Rollback(value = false) // @Test가 끝나도 롤백 안한다.
 class MemberJpaRepositoryTest {
@@ -20,6 +25,13 @@ class MemberJpaRepositoryTest {
     @Autowired MemberJpaRepository memberJpaRepository;
 
     // @Autowired MemberRepository memberRepository; /** 스프링 데이터 jpa 를 적용해보자! */
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    /** 테스트 데이터를 커밋하므로(@Rollback(false)) 커밋이 끝난 뒤에 비운다. (@AfterEach 는 트랜잭션 안에서 돈다.) */
+    @AfterTransaction
+    void cleanUp() {
+        DatabaseCleanup.deleteAll(jdbcTemplate);
+    }
 
     @Test
     public void testMember(){
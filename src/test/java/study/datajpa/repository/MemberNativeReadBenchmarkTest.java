@@ -0,0 +1,64 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import study.datajpa.support.AllocationBenchmark;
+
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** 대량 조회 비교 : JPQL DTO(findMemberDto), 패치조인 엔티티(findMemberFetchJoin), JDBC DTO, JDBC 컬럼 배열(순차/병렬)
+ * 병렬 조회는 커밋된 데이터만 보이므로 데이터를 JDBC 로 넣고 커밋한 뒤 끝나면 지운다. (@Transactional 안 씀)
+ * ./gradlew benchmark -Dbenchmark.members=1000000 -Dbenchmark.parallelism=4
+ * (alloc/row 는 호출 스레드 기준. 병렬 조회의 작업 스레드 할당은 빠진다. AllocationBenchmark 참고)
+ * */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class MemberNativeReadBenchmarkTest {
+
+    private static final long ID_OFFSET = 1_000_000_000L; // 시퀀스로 만든 id 와 겹치지 않도록
+    private static final int TEAM_COUNT = 100;
+    private static final int ROUNDS = 3;
+    private static final int MEMBERS = Integer.getInteger("benchmark.members", 1_000_000);
+    private static final int PARALLELISM = Integer.getInteger("benchmark.parallelism", 4);
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bulkRead() throws Exception {
+        jdbcTemplate.update("insert into team (team_id, name)" +
+                " select ? + x, concat('benchTeam', x) from system_range(1, ?)", ID_OFFSET, TEAM_COUNT);
+        jdbcTemplate.update("insert into member (member_id, age, username, team_id)" +
+                " select ? + x, mod(x, 100), concat('bench', x), ? + mod(x, ?) + 1 from system_range(1, ?)",
+                ID_OFFSET, ID_OFFSET, TEAM_COUNT, MEMBERS);
+
+        int expected = memberRepository.findMemberDtoNative().size();
+        assertThat(expected).isGreaterThanOrEqualTo(MEMBERS);
+        assertThat(memberRepository.findMemberColumns(PARALLELISM).size())
+                .isEqualTo(memberRepository.findMemberColumns(1).size());
+
+        report("jpql   findMemberDto", () -> memberRepository.findMemberDto().size());
+        report("jpql   findMemberFetchJoin", () -> memberRepository.findMemberFetchJoin().size());
+        report("jdbc   findMemberDtoNative", () -> memberRepository.findMemberDtoNative().size());
+        report("jdbc   findMemberColumns(1)", () -> memberRepository.findMemberColumns(1).size());
+        report("jdbc   findMemberColumns(" + PARALLELISM + ")", () -> memberRepository.findMemberColumns(PARALLELISM).size());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from member where member_id > ?", ID_OFFSET);
+        jdbcTemplate.update("delete from team where team_id > ?", ID_OFFSET);
+    }
+
+    private static void report(String name, Callable<Integer> task) throws Exception {
+        AllocationBenchmark.report("native-read", name, ROUNDS, task);
+    }
+}
@@ -1,21 +1,31 @@
 package study.datajpa.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.transaction.AfterTransaction;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.cache.CacheStats;
+import study.datajpa.cache.MemberUsernameCache;
+import study.datajpa.dto.MemberColumns;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.support.DatabaseCleanup;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -23,14 +33,23 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @Transactional
 @Rollback(value = false)
 public class MemberRepositoryTest {
 
     @Autowired MemberRepository memberRepository; // 인터페이스
     @Autowired TeamRepository teamRepository;
+    @Autowired MemberUsernameCache usernameCache;
 
     @PersistenceContext EntityManager em;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    /** 테스트 데이터를 커밋하므로(@Rollback(false)) 커밋이 끝난 뒤에 비운다. (@AfterEach 는 트랜잭션 안에서 돈다.) */
+    @AfterTransaction
+    void cleanUp() {
+        DatabaseCleanup.deleteAll(jdbcTemplate);
+    }
 
     @Test
     public void testMember(){
@@ -170,6 +189,56 @@ public class MemberRepositoryTest {
         System.out.println("optional = " + optional);
     }
 
+    @Test
+    public void usernameCache(){ /** username 조회 캐시 */
+        Member member = memberRepository.save(new Member("cacheMember", 10));
+        CacheStats before = usernameCache.stats();
+
+        memberRepository.findByUsername("cacheMember"); // DB 조회 후 캐시
+        List<Member> cached = memberRepository.findByUsername("cacheMember"); // 캐시 적중
+        memberRepository.findOptionalByUsername("cacheNobody"); // DB 조회 후 "없음" 캐시
+        Member nobody = memberRepository.findMemberByUsername("cacheNobody"); // 쿼리 없이 null
+
+        CacheStats after = usernameCache.stats();
+        assertThat(cached).containsExactly(member);
+        assertThat(nobody).isNull();
+        assertThat(after.getHits() - before.getHits()).isEqualTo(1);
+        assertThat(after.getNegativeHits() - before.getNegativeHits()).isEqualTo(1);
+
+        // setter 로 이름 변경 -> flush 때 엔티티 리스너가 캐시 무효화
+        member.setUsername("cacheRenamed");
+        assertThat(memberRepository.findByUsername("cacheMember")).isEmpty();
+        assertThat(memberRepository.findByUsername("cacheRenamed")).containsExactly(member);
+
+        // 없다고 캐시된 이름으로 저장해도 바로 조회된다.
+        Member created = memberRepository.save(new Member("cacheNobody", 20));
+        assertThat(memberRepository.findOptionalByUsername("cacheNobody")).contains(created);
+    }
+
+    @Test
+    public void usernameCacheLoadsMissingIdsInOneQuery(){ /** 캐시 적중인데 1차 캐시에 없으면 in 쿼리 1번, 적중률에는 안 들어간다. */
+        memberRepository.save(new Member("cacheLoad", 10));
+        memberRepository.save(new Member("cacheLoad", 20));
+        memberRepository.findByUsername("cacheLoad"); // DB 조회 후 캐시
+        em.flush();
+        em.clear();
+
+        CacheStats before = usernameCache.stats();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<Member> members = memberRepository.findByUsername("cacheLoad");
+
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+        CacheStats after = usernameCache.stats();
+        assertThat(members).extracting(Member::getAge).containsExactly(10, 20);
+        assertThat(statements).isEqualTo(1);
+        assertThat(after.getLoadingHits() - before.getLoadingHits()).isEqualTo(1);
+        assertThat(after.getHits() - before.getHits()).isEqualTo(0);
+    }
+
     /** 데이터 JPA 페이징 : Page */
     @Test
     public void pagingPage(){
@@ -283,6 +352,87 @@ public class MemberRepositoryTest {
         assertThat(resultCount).isEqualTo(3);
     }
 
+    @Test
+    public void bulkAgePlusEvictMatching(){ /** 벌크성 수정 쿼리 : 수정 대상만 영속성 컨텍스트에서 정리 */
+        long clearAllLoads = reloadCountAfterBulk(BulkClearMode.CLEAR_ALL);
+        long evictMatchingLoads = reloadCountAfterBulk(BulkClearMode.EVICT_MATCHING);
+
+        /** CLEAR_ALL : 나이 안 바뀐 member, team 까지 전부 다시 조회 (3번)
+         *  EVICT_MATCHING : 나이 바뀐 member 1명 + 그 member 를 들고 있던 team.members 의 주인 team refresh (2번) */
+        assertThat(clearAllLoads).isEqualTo(3);
+        assertThat(evictMatchingLoads).isEqualTo(2);
+    }
+
+    @Test
+    public void bulkAgePlusEvictMatchingReloadsTeamMembers(){ /** 떼어낸 Member 가 초기화된 Team.members 에 남지 않는다. */
+        Team team = teamRepository.save(new Team("bulkTeam"));
+        Member young = memberRepository.save(new Member("bulkYoung", 10, team));
+        Member old = memberRepository.save(new Member("bulkOld", 100, team));
+        assertThat(team.getMembers()).containsExactlyInAnyOrder(young, old);
+
+        memberRepository.bulkAgePlus(100, BulkClearMode.EVICT_MATCHING);
+
+        assertThat(em.contains(old)).isFalse();
+        assertThat(em.contains(team)).isTrue();
+        assertThat(team.getMembers()).doesNotContain(old);
+        assertThat(team.getMembers()).extracting(Member::getAge).containsExactlyInAnyOrder(10, 101);
+    }
+
+    @Test
+    public void bulkDelete(){ /** 벌크성 삭제(soft delete) : 삭제된 Member 는 항상 영속성 컨텍스트와 Team.members 에서 빠진다. */
+        Team team = teamRepository.save(new Team("bulkTeam"));
+        Member young = memberRepository.save(new Member("bulkYoung", 10, team));
+        Member old = memberRepository.save(new Member("bulkOld", 100, team));
+        assertThat(team.getMembers()).hasSize(2);
+
+        int resultCount = memberRepository.bulkDelete(100, BulkClearMode.REFRESH_MATCHING);
+
+        assertThat(resultCount).isEqualTo(1);
+        assertThat(em.contains(old)).isFalse();
+        assertThat(em.contains(young)).isTrue();
+        assertThat(team.getMembers()).containsExactly(young);
+        assertThat(memberRepository.findByUsername("bulkOld")).isEmpty();
+        assertThat(memberRepository.findMemberDtoByUsername("bulkOld", true))
+                .extracting(MemberDto::getTeamName).containsExactly("bulkTeam"); // 삭제 전 팀은 deleted_team_id 에 남는다.
+    }
+
+    @Test
+    public void bulkAgePlusRefreshMatching(){
+        Team team = teamRepository.save(new Team("bulkTeam"));
+        Member young = memberRepository.save(new Member("bulkYoung", 10, team));
+        Member old = memberRepository.save(new Member("bulkOld", 100, team));
+
+        memberRepository.bulkAgePlus(100, BulkClearMode.REFRESH_MATCHING);
+
+        // 같은 인스턴스가 영속 상태로 남아 있고, 값만 DB 값으로 갱신된다.
+        assertThat(em.contains(old)).isTrue();
+        assertThat(old.getAge()).isEqualTo(101);
+        assertThat(em.contains(young)).isTrue();
+        assertThat(em.contains(team)).isTrue();
+    }
+
+    /** 벌크 연산 후 같은 데이터를 다시 읽을 때 DB 에서 로딩한 엔티티 개수 */
+    private long reloadCountAfterBulk(BulkClearMode mode){
+        Team team = teamRepository.save(new Team("bulkTeam"));
+        Member young = memberRepository.save(new Member("bulkYoung", 10, team));
+        Member old = memberRepository.save(new Member("bulkOld", 100, team));
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        memberRepository.bulkAgePlus(100, mode);
+
+        Member findOld = memberRepository.findById(old.getId()).get();
+        memberRepository.findById(young.getId());
+        teamRepository.findById(team.getId());
+        assertThat(findOld.getAge()).isEqualTo(101);
+
+        long loadCount = statistics.getEntityLoadCount();
+        statistics.setStatisticsEnabled(false);
+        return loadCount;
+    }
+
     @Test
     public void findMemberLazy(){
         /**  @EntityGraph
@@ -379,4 +529,33 @@ public class MemberRepositoryTest {
          * */
         List<Member> result = memberRepository.findMemberCustom();
     }
+
+    @Test
+    public void nativeFastPath(){
+        // given : 팀 있는 회원, 팀 없는 회원, 삭제된 회원
+        Team team = teamRepository.save(new Team("nativeTeam"));
+        Member member1 = memberRepository.save(new Member("native1", 10, team));
+        Member member2 = memberRepository.save(new Member("native2", 20));
+        Member deleted = memberRepository.save(new Member("native3", 30, team));
+        memberRepository.delete(deleted); // flush 전이어도 JDBC 조회 전에 flush 된다.
+
+        // when
+        List<MemberDto> dtos = memberRepository.findMemberDtoNative();
+        MemberColumns columns = memberRepository.findMemberColumns(4); // 트랜잭션 안 -> 순차로 읽는다.
+
+        // then : findMemberDto 와 같은 결과, soft delete 제외
+        assertThat(dtos).containsExactlyInAnyOrderElementsOf(memberRepository.findMemberDto());
+        assertThat(dtos).contains(new MemberDto(member1.getId(), "native1", "nativeTeam"));
+        assertThat(dtos).extracting("username").doesNotContain("native2", "native3");
+
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            usernames.add(columns.getUsername(i));
+            if (columns.getId(i) == member2.getId()) {
+                assertThat(columns.getAge(i)).isEqualTo(20);
+                assertThat(columns.getTeamId(i)).isEqualTo(0); // 팀 없음
+            }
+        }
+        assertThat(usernames).contains("native1", "native2").doesNotContain("native3");
+    }
 }
\ No newline at end of file
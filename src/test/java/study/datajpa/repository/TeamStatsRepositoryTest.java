@@ -0,0 +1,165 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.AgeGroupDto;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStats;
+import study.datajpa.support.DatabaseCleanup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** team_stats 는 커밋 직전에 반영되므로, 테스트 메소드 단위 @Transactional 대신 트랜잭션을 직접 나눠서 커밋한다. */
+@SpringBootTest
+@ActiveProfiles("test")
+class TeamStatsRepositoryTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired TeamStatsRepository teamStatsRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired TeamStatsMaintainer teamStatsMaintainer;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        DatabaseCleanup.deleteAll(jdbcTemplate);
+    }
+
+    @Test
+    public void teamStatsFollowMemberChanges(){
+        // given
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team teamA = teamRepository.save(new Team("statsA"));
+            Team teamB = teamRepository.save(new Team("statsB"));
+            Member member1 = memberRepository.save(new Member("stats1", 10, teamA));
+            Member member2 = memberRepository.save(new Member("stats2", 20, teamA));
+            return new Long[]{teamA.getId(), teamB.getId(), member1.getId(), member2.getId()};
+        });
+        Long teamA = ids[0], teamB = ids[1], member1 = ids[2], member2 = ids[3];
+        assertStats(teamA, 2, 30);
+        assertStats(teamB, 0, 0);
+
+        // 팀 변경
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(member2).get().changeTeam(teamRepository.findById(teamB).get()));
+        assertStats(teamA, 1, 10);
+        assertStats(teamB, 1, 20);
+
+        // 벌크 수정 : 15살 이상 +1
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(15));
+        assertStats(teamA, 1, 10);
+        assertStats(teamB, 1, 21);
+
+        // 삭제
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteById(member1));
+        assertStats(teamA, 0, 0);
+
+        // 롤백된 변경은 반영되지 않는다.
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.save(new Member("stats3", 30, teamRepository.findById(teamB).get()));
+            status.setRollbackOnly();
+        });
+        assertStats(teamB, 1, 21);
+    }
+
+    @Test
+    public void bulkAgePlusWithoutCallerTransaction(){
+        Long teamId = transactionTemplate.execute(status -> {
+            Team team = teamRepository.save(new Team("statsD"));
+            memberRepository.save(new Member("stats7", 50, team));
+            return team.getId();
+        });
+
+        memberJpaRepository.bulkAgePlus(50); // 호출한 쪽에 트랜잭션 없음 -> 메소드가 트랜잭션을 연다.
+
+        assertStats(teamId, 1, 51);
+        assertThat(teamStatsMaintainer.pendingTransactions()).isZero(); // 세션별 증감분이 남지 않는다.
+    }
+
+    @Test
+    public void bulkAgePlusMatchesRebuild(){ /** SQL 안에서 계산한 벌크 증감분 == 처음부터 다시 계산한 값 */
+        Long[] ids = transactionTemplate.execute(status -> {
+            Team team = teamRepository.save(new Team("statsE"));
+            memberRepository.save(new Member("stats8", 40, team));
+            memberRepository.save(new Member("stats9", 10, team));
+            memberRepository.save(new Member("stats10", 60)); // 팀 없음
+            Member deleted = memberRepository.save(new Member("stats11", 70, team));
+            return new Long[]{team.getId(), deleted.getId()};
+        });
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteById(ids[1]));
+
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(30));
+        assertStats(ids[0], 2, 51);
+
+        teamStatsMaintainer.rebuild();
+        assertStats(ids[0], 2, 51);
+    }
+
+    @Test
+    public void rollbackThenCommitOnSameEntityManager(){ /** 롤백된 트랜잭션의 증감분/이벤트가 같은 세션의 다음 커밋에 섞이지 않는다. */
+        Long teamId = transactionTemplate.execute(status -> teamRepository.save(new Team("statsF")).getId());
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.persist(new Member("statsRolledBack", 30, em.find(Team.class, teamId)));
+            em.flush();
+            em.getTransaction().rollback();
+            em.clear();
+
+            em.getTransaction().begin();
+            em.persist(new Member("statsCommitted", 40, em.find(Team.class, teamId)));
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+
+        assertStats(teamId, 1, 40);
+        assertThat(teamStatsMaintainer.pendingTransactions()).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from outbox_event where payload like '%statsRolledBack%'", Integer.class)).isZero();
+    }
+
+    @Test
+    public void aggregatesMatchMaterializedStats(){
+        Long teamId = transactionTemplate.execute(status -> {
+            Team team = teamRepository.save(new Team("statsC"));
+            memberRepository.save(new Member("stats4", 31, team));
+            memberRepository.save(new Member("stats5", 44, team));
+            memberRepository.save(new Member("stats6", 47, team));
+            return team.getId();
+        });
+
+        TeamStatsDto aggregated = memberRepository.findTeamStats().stream()
+                .filter(dto -> dto.getTeamId().equals(teamId))
+                .findFirst().get();
+        TeamStats materialized = teamStatsRepository.findById(teamId).get();
+
+        assertThat(materialized.getMemberCount()).isEqualTo(aggregated.getMemberCount()).isEqualTo(3);
+        assertThat(materialized.getAverageAge()).isEqualTo(122.0 / 3);
+
+        List<AgeGroupDto> histogram = memberRepository.findAgeHistogram();
+        assertThat(histogram).extracting(AgeGroupDto::getAgeFrom).contains(30, 40);
+        assertThat(histogram.stream().mapToLong(AgeGroupDto::getMemberCount).sum()).isEqualTo(memberRepository.count());
+    }
+
+    private void assertStats(Long teamId, long memberCount, long ageSum) {
+        TeamStats stats = teamStatsRepository.findById(teamId).get();
+        assertThat(stats.getMemberCount()).isEqualTo(memberCount);
+        assertThat(stats.getAgeSum()).isEqualTo(ageSum);
+    }
+}
@@ -0,0 +1,118 @@
+package study.datajpa.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** 로컬 H2 메모리 DB 3개를 샤드로 쓴다. */
+class ShardedMemberRepositoryTest {
+
+    List<DataSource> dataSources = new ArrayList<>();
+    ShardedMemberRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        String name = UUID.randomUUID().toString(); // 테스트마다 새 DB
+        for (int i = 0; i < 3; i++) {
+            dataSources.add(new DriverManagerDataSource("jdbc:h2:mem:" + name + "-shard" + i + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        }
+        repository = new ShardedMemberRepository(dataSources, ShardingStrategy.TEAM, new ShardIdGenerator(0));
+        repository.createSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+        dataSources.forEach(dataSource -> new JdbcTemplate(dataSource).execute("shutdown"));
+    }
+
+    @Test
+    public void routeByTeam(){
+        ShardedMember member1 = repository.save("member1", 10, 1L);
+        ShardedMember member2 = repository.save("member2", 20, 1L);
+
+        // 같은 팀은 같은 샤드, id 에 샤드 번호가 들어있다.
+        assertThat(ShardIdGenerator.shardOf(member1.getId())).isEqualTo(ShardIdGenerator.shardOf(member2.getId()));
+        assertThat(repository.findById(member1.getId())).contains(member1);
+
+        repository.deleteById(member1.getId());
+        assertThat(repository.findById(member1.getId())).isEmpty();
+    }
+
+    @Test
+    public void scatterGatherByUsername(){
+        for (long team = 0; team < 30; team++) {
+            repository.save("AAA", 10, team);
+        }
+        repository.save("BBB", 10, 1L);
+
+        List<ShardedMember> result = repository.findByUsername("AAA");
+
+        assertThat(result).hasSize(30);
+        assertThat(result).isSortedAccordingTo(Comparator.comparingLong(ShardedMember::getId));
+        Set<Integer> usedShards = result.stream().map(m -> ShardIdGenerator.shardOf(m.getId())).collect(Collectors.toSet());
+        assertThat(usedShards).hasSize(3); // 여러 샤드에 흩어져 있어도 한번에 조회
+    }
+
+    @Test
+    public void pagingAcrossShards(){
+        List<ShardedMember> all = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            all.add(repository.save("member" + (i % 17), 10, (long) i));
+        }
+        repository.save("other", 20, 1L);
+
+        Sort sort = Sort.by(Sort.Direction.DESC, "username");
+        List<ShardedMember> expected = new ArrayList<>(all);
+        expected.sort(Comparator.comparing(ShardedMember::getUsername).reversed().thenComparingLong(ShardedMember::getId));
+
+        Page<ShardedMember> page = repository.findByAge(10, PageRequest.of(2, 7, sort));
+
+        assertThat(page.getTotalElements()).isEqualTo(50);
+        assertThat(page.getTotalPages()).isEqualTo(8);
+        assertThat(page.getContent()).containsExactlyElementsOf(expected.subList(14, 21));
+    }
+
+    @Test
+    public void memberHashSpreadsOneTeam(){
+        repository.close();
+        repository = new ShardedMemberRepository(dataSources, ShardingStrategy.MEMBER_HASH, new ShardIdGenerator(0));
+
+        for (int i = 0; i < 60; i++) {
+            repository.save("member" + i, 10, 1L);
+        }
+
+        assertThat(repository.count()).isEqualTo(60);
+        Set<Integer> usedShards = new HashSet<>();
+        repository.findByAge(10, PageRequest.of(0, 60)).forEach(m -> usedShards.add(ShardIdGenerator.shardOf(m.getId())));
+        assertThat(usedShards).hasSize(3);
+    }
+
+    @Test
+    public void uniqueIds(){
+        ShardIdGenerator generator = new ShardIdGenerator(3);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId(i % 5);
+            assertThat(ShardIdGenerator.shardOf(id)).isEqualTo(i % 5);
+            ids.add(id);
+        }
+        assertThat(ids).hasSize(10_000);
+    }
+}
@@ -0,0 +1,41 @@
+package study.datajpa.support;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/** 벤치마크 테스트(@Tag("benchmark")) 공통 측정 : 호출 스레드의 할당 바이트 / 행 수, 평균 시간
+ * 작업 스레드(병렬 조회 등)의 할당은 호출 스레드 기준이라 빠진다.
+ * */
+public final class AllocationBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationBenchmark() {
+    }
+
+    /** task 를 rounds + 1 번 실행한다. 첫 라운드는 워밍업으로 버리고 나머지 라운드의 평균을 출력한다.
+     * task 는 처리한 행 수를 리턴한다. 출력 : [label] name rows=.. alloc/row=..B avg=..ms */
+    public static void report(String label, String name, int rounds, Callable<Integer> task) throws Exception {
+        long bytes = 0;
+        long nanos = 0;
+        long rows = 0;
+        for (int round = 0; round <= rounds; round++) {
+            long startBytes = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+            long start = System.nanoTime();
+            int count = task.call();
+            long elapsed = System.nanoTime() - start;
+            long allocated = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - startBytes;
+            if (round > 0) {
+                bytes += allocated;
+                nanos += elapsed;
+                rows += count;
+            }
+        }
+        System.out.println("[" + label + "] " + name
+                + " rows=" + rows / rounds
+                + " alloc/row=" + bytes / Math.max(rows, 1) + "B"
+                + " avg=" + String.format(Locale.ROOT, "%.3f", nanos / (double) rounds / 1_000_000) + "ms");
+    }
+}
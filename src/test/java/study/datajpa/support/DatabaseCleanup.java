@@ -0,0 +1,29 @@
+package study.datajpa.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/** 테스트용 메모리 DB(DB_CLOSE_DELAY=-1)는 JVM 동안 유지되어 테스트 클래스끼리 공유된다.
+ * 커밋하는 테스트는 끝날 때 모든 테이블을 비워서, 개수를 세는 검증이 테스트 실행 순서에 좌우되지 않게 한다.
+ * (H2 전용 : referential_integrity)
+ * */
+public final class DatabaseCleanup {
+
+    private DatabaseCleanup() {
+    }
+
+    public static void deleteAll(JdbcTemplate jdbcTemplate) {
+        List<String> tables = jdbcTemplate.queryForList(
+                "select table_name from information_schema.tables" +
+                " where table_schema = 'PUBLIC' and table_type in ('TABLE', 'BASE TABLE')", String.class);
+        jdbcTemplate.execute("set referential_integrity false");
+        try {
+            for (String table : tables) {
+                jdbcTemplate.execute("truncate table " + table);
+            }
+        } finally {
+            jdbcTemplate.execute("set referential_integrity true");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+-- 테스트용 스키마. 엔티티 매핑을 바꾸면 같이 수정해야 한다. (ddl-auto: validate 가 엔티티와 맞는지 검사한다.)
+-- (ddl-auto: create 로 한번 띄워서 나온 DDL 을 옮겨 적은 것)
+-- 메모리 DB 가 JVM 동안 유지되므로, 두번째 스프링 컨텍스트가 떠도 깨지지 않도록 if not exists 사용.
+
+create sequence if not exists hibernate_sequence start with 1 increment by 1;
+
+create table if not exists team (
+    team_id bigint not null,
+    name varchar(255),
+    primary key (team_id)
+);
+
+create table if not exists member (
+    member_id bigint not null,
+    age integer not null,
+    username varchar(255),
+    team_id bigint,
+    deleted_at timestamp,
+    deleted_team_id bigint,
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team
+);
+
+-- MemberArchiver 배치 조회 : where deleted_at < ? and member_id > ? order by member_id
+create index if not exists idx_member_deleted on member (deleted_at, member_id);
+
+create table if not exists team_stats (
+    team_id bigint not null,
+    age_sum bigint not null,
+    member_count bigint not null,
+    primary key (team_id)
+);
+
+create table if not exists member_archive (
+    member_id bigint not null,
+    age integer not null,
+    username varchar(255),
+    team_id bigint,
+    deleted_at timestamp,
+    archived_at timestamp,
+    primary key (member_id)
+);
+
+create table if not exists archive_checkpoint (
+    job varchar(255) not null,
+    cutoff timestamp,
+    last_member_id bigint not null,
+    primary key (job)
+);
+
+create table if not exists outbox_event (
+    event_id bigint auto_increment not null,
+    aggregate_type varchar(255),
+    aggregate_id bigint,
+    event_type varchar(255),
+    payload varchar(4000),
+    created_at timestamp,
+    published_at timestamp,
+    primary key (event_id)
+);
+
+-- OutboxRelay 폴링 : where published_at is null order by event_id
+create index if not exists idx_outbox_event_published on outbox_event (published_at, event_id);